@@ -0,0 +1,467 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import org.w3c.dom.Node;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.zip.CRC32;
+
+/**
+ * Reads animated GIF and APNG images into ready to show tray icon frames.
+ * <p>
+ * Frames are read one at a time and composed onto a single canvas of the
+ * image's full size, following each frame's disposal (and for APNG, blend)
+ * method. After each frame is composed the canvas is scaled to the icon
+ * size, so only the scaled frames are kept and the unscaled frames never
+ * exist in memory all at once.
+ */
+class AnimatedImageReader {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final String GIF_IMAGE_METADATA = "javax_imageio_gif_image_1.0";
+    private static final String GIF_STREAM_METADATA = "javax_imageio_gif_stream_1.0";
+
+    /**
+     * Like web browsers, treat very short frame delays as "unspecified",
+     * many GIF files in the wild rely on that.
+     */
+    private static final int MINIMUM_DELAY_MS = 20;
+    private static final int DEFAULT_DELAY_MS = 100;
+
+    private final int width;
+    private final int height;
+    private final IconScaler scaler;
+    private final LinkedList<Image> frames = new LinkedList<>();
+    private final LinkedList<Integer> delays = new LinkedList<>();
+    private int loopCount = 0;
+
+    private AnimatedImageReader(int width, int height, IconScaler scaler) {
+        this.width = width;
+        this.height = height;
+        this.scaler = scaler;
+    }
+
+    /**
+     * Reads an animated GIF or APNG image.
+     * @param in The stream to read from, it is not closed by this method
+     * @param width The width of the frames to be produced
+     * @param height The height of the frames to be produced
+     * @param scaler How the frames are scaled
+     * @return The scaled frames along with their delays
+     * @throws IOException If the stream cannot be read, or it is neither a GIF nor a PNG image
+     */
+    static AnimatedImageReader read(InputStream in, int width, int height, IconScaler scaler) throws IOException {
+        AnimatedImageReader reader = new AnimatedImageReader(width, height, scaler);
+        BufferedInputStream bin = new BufferedInputStream(in);
+        bin.mark(PNG_SIGNATURE.length);
+        byte[] header = bin.readNBytes(PNG_SIGNATURE.length);
+        bin.reset();
+        if (Arrays.equals(header, PNG_SIGNATURE)) {
+            reader.readPNG(new DataInputStream(bin));
+        }
+        else if (header.length >= 3 && new String(header, 0, 3, StandardCharsets.US_ASCII).equals("GIF")) {
+            reader.readGIF(bin);
+        }
+        else {
+            throw new IOException("Only animated GIF and PNG (APNG) images are supported.");
+        }
+        if (reader.frames.isEmpty()) {
+            throw new IOException("The image does not contain any frames.");
+        }
+        return reader;
+    }
+
+    /**
+     * @return the scaled frames in playback order
+     */
+    LinkedList<Image> frames() {
+        return frames;
+    }
+
+    /**
+     * @return the delay of each frame in milliseconds
+     */
+    int[] delays() {
+        return delays.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return how many times the image asks to be played, 0 means forever
+     */
+    int loopCount() {
+        return loopCount;
+    }
+
+    /**
+     * @return the frame delays and loop count of the image as a FrameSequence
+     */
+    FrameSequence sequence() {
+        return FrameSequence.of(delays(), loopCount);
+    }
+
+    private void readGIF(InputStream in) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName("gif");
+        if (!readers.hasNext()) {
+            throw new IOException("No GIF image reader is available.");
+        }
+        ImageReader reader = readers.next();
+        try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            reader.setInput(iis, true);
+            BufferedImage canvas = null;
+            for (int i = 0; ; i++) {
+                BufferedImage frame;
+                try {
+                    frame = reader.read(i);
+                }
+                catch (IndexOutOfBoundsException endOfImages) {
+                    break;
+                }
+                IIOMetadataNode metadata = (IIOMetadataNode) reader.getImageMetadata(i)
+                        .getAsTree(GIF_IMAGE_METADATA);
+                if (canvas == null) {
+                    canvas = createGIFCanvas(reader.getStreamMetadata(), frame);
+                    loopCount = readGIFLoopCount(metadata);
+                }
+                IIOMetadataNode descriptor = child(metadata, "ImageDescriptor");
+                IIOMetadataNode control = child(metadata, "GraphicControlExtension");
+                int x = intAttribute(descriptor, "imageLeftPosition", 0);
+                int y = intAttribute(descriptor, "imageTopPosition", 0);
+                String disposal = control == null ? "none" : control.getAttribute("disposalMethod");
+                int delay = control == null ? 0 : intAttribute(control, "delayTime", 0) * 10;
+
+                Rectangle area = new Rectangle(x, y, frame.getWidth(), frame.getHeight());
+                compose(canvas, frame, area, false, disposal.equals("restoreToPrevious") ? 2
+                        : disposal.equals("restoreToBackgroundColor") ? 1 : 0, delay);
+            }
+        }
+        finally {
+            reader.dispose();
+        }
+    }
+
+    private static BufferedImage createGIFCanvas(IIOMetadata streamMetadata, BufferedImage firstFrame) {
+        int canvasWidth = 0;
+        int canvasHeight = 0;
+        if (streamMetadata != null) {
+            IIOMetadataNode screen = child((IIOMetadataNode) streamMetadata
+                    .getAsTree(GIF_STREAM_METADATA), "LogicalScreenDescriptor");
+            canvasWidth = intAttribute(screen, "logicalScreenWidth", 0);
+            canvasHeight = intAttribute(screen, "logicalScreenHeight", 0);
+        }
+        if (canvasWidth <= 0 || canvasHeight <= 0) {
+            canvasWidth = firstFrame.getWidth();
+            canvasHeight = firstFrame.getHeight();
+        }
+        return new BufferedImage(canvasWidth, canvasHeight, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    private static int readGIFLoopCount(IIOMetadataNode metadata) {
+        IIOMetadataNode extensions = child(metadata, "ApplicationExtensions");
+        if (extensions != null) {
+            for (Node n = extensions.getFirstChild(); n != null; n = n.getNextSibling()) {
+                IIOMetadataNode extension = (IIOMetadataNode) n;
+                Object data = extension.getUserObject();
+                if ("NETSCAPE".equals(extension.getAttribute("applicationID"))
+                    && data instanceof byte[] && ((byte[]) data).length >= 3) {
+                    byte[] bytes = (byte[]) data;
+                    int repeats = (bytes[1] & 0xFF) | (bytes[2] & 0xFF) << 8;
+                    // the extension counts repeats after the first play, 0 means forever
+                    return repeats == 0 ? 0 : repeats + 1;
+                }
+            }
+        }
+        // without the NETSCAPE extension a GIF is meant to be played once
+        return 1;
+    }
+
+    /**
+     * Reads an APNG image. Each frame's compressed data is re-wrapped as a
+     * stand-alone PNG image, sharing the header and palette chunks of the
+     * animation, and decoded on its own before moving on to the next frame.
+     * A PNG image without animation control chunks results in a single frame.
+     */
+    private void readPNG(DataInputStream in) throws IOException {
+        in.skipBytes(PNG_SIGNATURE.length);
+        byte[] header = null;
+        ByteArrayOutputStream sharedChunks = new ByteArrayOutputStream();
+        ByteArrayOutputStream frameData = new ByteArrayOutputStream();
+        boolean animated = false;
+        FrameControl control = null;
+        BufferedImage canvas = null;
+
+        while (true) {
+            int length = in.readInt();
+            byte[] typeBytes = new byte[4];
+            in.readFully(typeBytes);
+            String type = new String(typeBytes, StandardCharsets.US_ASCII);
+            byte[] data = new byte[length];
+            in.readFully(data);
+            in.skipBytes(4); // CRC
+
+            switch (type) {
+                case "IHDR": {
+                    header = data;
+                    canvas = new BufferedImage(readInt(data, 0), readInt(data, 4), BufferedImage.TYPE_INT_ARGB);
+                    break;
+                }
+                case "acTL": {
+                    animated = true;
+                    loopCount = readInt(data, 4);
+                    break;
+                }
+                case "fcTL": {
+                    if (control != null) {
+                        decodeFrame(canvas, header, sharedChunks.toByteArray(), frameData.toByteArray(), control);
+                    }
+                    frameData.reset();
+                    control = new FrameControl(data);
+                    break;
+                }
+                case "IDAT": {
+                    // when animated, the default image is only shown
+                    // if it is preceded by a frame control chunk
+                    if (!animated || control != null) {
+                        frameData.write(data);
+                    }
+                    break;
+                }
+                case "fdAT": {
+                    frameData.write(data, 4, data.length - 4);
+                    break;
+                }
+                case "IEND": {
+                    if (header == null) {
+                        throw new IOException("The PNG image has no header.");
+                    }
+                    if (!animated) {
+                        control = new FrameControl(readInt(header, 0), readInt(header, 4));
+                    }
+                    if (control != null) {
+                        decodeFrame(canvas, header, sharedChunks.toByteArray(), frameData.toByteArray(), control);
+                    }
+                    return;
+                }
+                case "PLTE":
+                case "tRNS":
+                case "gAMA":
+                case "cHRM":
+                case "sRGB":
+                case "iCCP":
+                case "sBIT": {
+                    // palette, transparency and color space apply to every frame
+                    writeChunk(sharedChunks, type, data);
+                    break;
+                }
+                default:
+            }
+        }
+    }
+
+    private void decodeFrame(BufferedImage canvas, byte[] header, byte[] sharedChunks,
+                             byte[] frameData, FrameControl control) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream(frameData.length + sharedChunks.length + 64);
+        png.write(PNG_SIGNATURE);
+        byte[] frameHeader = header.clone();
+        writeInt(frameHeader, 0, control.width);
+        writeInt(frameHeader, 4, control.height);
+        writeChunk(png, "IHDR", frameHeader);
+        png.write(sharedChunks);
+        writeChunk(png, "IDAT", frameData);
+        writeChunk(png, "IEND", new byte[0]);
+        BufferedImage frame = IconDecoders.read(new ByteArrayInputStream(png.toByteArray()));
+        if (frame == null) {
+            throw new IOException("Unable to decode frame " + (frames.size() + 1) + " of the PNG image.");
+        }
+        Rectangle area = new Rectangle(control.x, control.y, control.width, control.height);
+        int disposal = frames.isEmpty() && control.disposal == 2 ? 1 : control.disposal;
+        compose(canvas, frame, area, control.blendSource, disposal, control.delayMS);
+    }
+
+    /**
+     * Draws a frame onto the canvas, stores the scaled result and then
+     * disposes the frame's area of the canvas as requested.
+     * @param disposal 0 leaves the canvas as is, 1 clears the frame's area
+     *                 and 2 restores the area to what it was before the frame
+     */
+    private void compose(BufferedImage canvas, BufferedImage frame, Rectangle area,
+                         boolean blendSource, int disposal, int delayMS) {
+        BufferedImage previous = null;
+        if (disposal == 2) {
+            previous = copyOf(canvas, area);
+        }
+        Graphics2D g = canvas.createGraphics();
+        try {
+            if (blendSource) {
+                g.setComposite(AlphaComposite.Src);
+            }
+            g.drawImage(frame, area.x, area.y, null);
+        }
+        finally {
+            g.dispose();
+        }
+        frame.flush();
+
+        frames.addLast(IconDeduplicator.intern(ImageUtils.rasterize(canvas, width, height, scaler)));
+        delays.addLast(delayMS < MINIMUM_DELAY_MS ? DEFAULT_DELAY_MS : delayMS);
+
+        if (disposal == 1 || disposal == 2) {
+            g = canvas.createGraphics();
+            try {
+                g.setComposite(AlphaComposite.Src);
+                if (previous != null) {
+                    g.drawImage(previous, area.x, area.y, null);
+                }
+                else {
+                    g.setColor(new Color(0, 0, 0, 0));
+                    g.fill(area);
+                }
+            }
+            finally {
+                g.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage copyOf(BufferedImage canvas, Rectangle area) {
+        Rectangle clipped = area.intersection(new Rectangle(canvas.getWidth(), canvas.getHeight()));
+        BufferedImage copy = new BufferedImage(Math.max(area.width, 1), Math.max(area.height, 1),
+                BufferedImage.TYPE_INT_ARGB);
+        if (!clipped.isEmpty()) {
+            Graphics2D g = copy.createGraphics();
+            try {
+                g.setComposite(AlphaComposite.Src);
+                g.drawImage(canvas.getSubimage(clipped.x, clipped.y, clipped.width, clipped.height),
+                        clipped.x - area.x, clipped.y - area.y, null);
+            }
+            finally {
+                g.dispose();
+            }
+        }
+        return copy;
+    }
+
+    private static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+        if (parent == null) {
+            return null;
+        }
+        for (Node n = parent.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n.getNodeName().equals(name)) {
+                return (IIOMetadataNode) n;
+            }
+        }
+        return null;
+    }
+
+    private static int intAttribute(IIOMetadataNode node, String name, int defaultValue) {
+        if (node == null || !node.hasAttribute(name)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(node.getAttribute(name));
+        }
+        catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static int readInt(byte[] b, int offset) {
+        return (b[offset] & 0xFF) << 24 | (b[offset + 1] & 0xFF) << 16
+               | (b[offset + 2] & 0xFF) << 8 | (b[offset + 3] & 0xFF);
+    }
+
+    private static int readShort(byte[] b, int offset) {
+        return (b[offset] & 0xFF) << 8 | (b[offset + 1] & 0xFF);
+    }
+
+    private static void writeInt(byte[] b, int offset, int value) {
+        b[offset] = (byte) (value >>> 24);
+        b[offset + 1] = (byte) (value >>> 16);
+        b[offset + 2] = (byte) (value >>> 8);
+        b[offset + 3] = (byte) value;
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, String type, byte[] data) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] number = new byte[4];
+        writeInt(number, 0, data.length);
+        out.write(number, 0, 4);
+        out.write(typeBytes, 0, 4);
+        out.write(data, 0, data.length);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        writeInt(number, 0, (int) crc.getValue());
+        out.write(number, 0, 4);
+    }
+
+    /**
+     * The contents of an APNG fcTL chunk.
+     */
+    private static final class FrameControl {
+
+        private final int width;
+        private final int height;
+        private final int x;
+        private final int y;
+        private final int delayMS;
+        private final int disposal;
+        private final boolean blendSource;
+
+        FrameControl(byte[] data) {
+            this.width = readInt(data, 4);
+            this.height = readInt(data, 8);
+            this.x = readInt(data, 12);
+            this.y = readInt(data, 16);
+            int delayNumerator = readShort(data, 20);
+            int delayDenominator = readShort(data, 22);
+            this.delayMS = delayNumerator * 1000 / (delayDenominator == 0 ? 100 : delayDenominator);
+            this.disposal = data[24];
+            this.blendSource = data[25] == 0;
+        }
+
+        /**
+         * A single, non-animated PNG image.
+         */
+        FrameControl(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.x = 0;
+            this.y = 0;
+            this.delayMS = DEFAULT_DELAY_MS;
+            this.disposal = 0;
+            this.blendSource = true;
+        }
+    }
+}
@@ -23,12 +23,19 @@ package com.dustinredmond.fxtrayicon;
  */
 
 
+import javafx.animation.Animation.Status;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.util.Duration;
 
 import java.awt.*;
-import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 /**
  * This class is documented in the FXTrayIcon classes Builder class.
@@ -36,61 +43,797 @@ import java.util.LinkedList;
  */
 class Animation {
 
-    private final LinkedList<Image> imageList;
-    private final int frameRateMS;
-    private final FXTrayIcon trayIcon;
-    private final Timeline timeline;
+    /**
+     * The shortest time between two frames handed to a tray icon, 0 for no limit.
+     */
+    private static volatile long minimumFrameNanos;
 
+    /**
+     * Reasons for an animation to be suspended, see {@link #suspend(int)}.
+     */
+    static final int HIDDEN = 1;
+    static final int TRAY_UNAVAILABLE = 2;
+    static final int IDLE = 4;
+
+    /**
+     * How often a suspended animation asks its idle predicate whether it may resume.
+     */
+    private static final long IDLE_POLL_MS = 500;
+
+    private final FrameSource frames;
+    /**
+     * The frame shown at each step of one loop, so holds, reverse and
+     * ping-pong playback share the frames instead of copying them.
+     */
+    private final int[] steps;
+    private final int[] stepDurationsMS;
+    /**
+     * Where each step starts within one loop, and the length of a loop.
+     */
+    private final long[] stepStartNanos;
+    private final long loopNanos;
+    private final int loopCount;
+    private final Consumer<Image> frameConsumer;
+    private volatile AnimationDriver driver = AnimationDriver.TIMELINE;
+    private Timeline timeline;
+    private volatile AnimationClock clock;
+
+    /**
+     * Requests to play, pause or stop the animation may come from any
+     * thread. Each request replaces the one that is still waiting, and a
+     * single task on the driver thread carries out whichever is the latest,
+     * so rapid toggling ends in one transition.
+     */
+    private enum Command {
+        PLAY(Status.RUNNING),
+        PLAY_FROM_START(Status.RUNNING),
+        PAUSE(Status.PAUSED),
+        STOP(Status.STOPPED);
+
+        private final Status status;
+
+        Command(Status status) {
+            this.status = status;
+        }
+    }
+
+    private final AtomicReference<Command> pending = new AtomicReference<>();
+
+    /**
+     * The state the animation is in, only changed on the driver thread.
+     */
+    private volatile Status status = Status.STOPPED;
+    private volatile long due;
+    private long remainingNanos;
+    private int loopsPlayed;
+
+    /**
+     * Index of the step that was shown last, -1 before the first step.
+     */
+    private int cursor = -1;
+    private Image lastPushed;
+    private long lastPushNanos;
+    /**
+     * Set when the current step was skipped because of the frame rate limit.
+     */
+    private boolean behind;
+
+    /**
+     * While suspended, the animation still counts as running but nothing
+     * drives it. It remembers where it was and when, so that it picks up
+     * where it would have been had it kept running.
+     */
+    private int suspension;
+    private volatile boolean frozen;
+    private long frozenAt;
+    private long frozenPosition;
+    private long savedTicks;
+    private BooleanSupplier idlePredicate;
+    private ScheduledFuture<?> idleWatch;
+
+    /**
+     * Runs instead of the next step, or once the current loop is over,
+     * to hand the tray icon over to another animation.
+     */
+    private volatile Runnable handOff;
+    private volatile boolean handOffAtLoopEnd;
+
+    /**
+     * Each step gets its own KeyFrame, placed where the steps before it
+     * have had their time, and a last KeyFrame marks the end of the loop
+     * so that the last step is shown for its full duration as well.
+     */
     private Timeline getTimeline() {
         Timeline timeline = new Timeline();
-        timeline.getKeyFrames().add(new KeyFrame(Duration.millis(frameRateMS), e -> updateImage()));
-        timeline.setCycleCount(javafx.animation.Animation.INDEFINITE);
+        double time = 0;
+        for (int i = 0; i < steps.length; i++) {
+            final int step = i;
+            timeline.getKeyFrames().add(new KeyFrame(Duration.millis(time), e -> {
+                if (!becameIdle() && !handingOff(step)) {
+                    showStep(step);
+                }
+            }));
+            time += stepDurationsMS[i];
+        }
+        if (steps.length > 0) {
+            timeline.getKeyFrames().add(new KeyFrame(Duration.millis(time)));
+        }
+        timeline.setCycleCount(loopCount == FrameSequence.INDEFINITE
+                ? javafx.animation.Animation.INDEFINITE : loopCount);
+        timeline.setOnFinished(e -> {
+            status = Status.STOPPED;
+            catchUp();
+            frames.close();
+            handingOff(0);
+        });
         return timeline;
     }
 
-    private void updateImage() {
-        Image image = imageList.removeFirst();
-        trayIcon.setAnimationFrame(image);
-        imageList.addLast(image);
+    /**
+     * Moves on to the next step, wrapping around after the last one.
+     * This neither allocates nor touches the tray icon when the next
+     * frame is the same image as the current one.
+     */
+    void updateImage() {
+        showStep(cursor + 1 < steps.length ? cursor + 1 : 0);
+    }
+
+    private void showStep(int step) {
+        if (step == 0 && cursor >= 0) {
+            loopsPlayed++;
+        }
+        cursor = step;
+        Image frame = frames.get(steps[step]);
+        frames.prefetch(steps[step + 1 < steps.length ? step + 1 : 0]);
+        behind = false;
+        Command command = pending.get();
+        if (command == Command.STOP || command == Command.PAUSE) {
+            // asked to stop from another thread, the icon may already have been reset
+            return;
+        }
+        if (frame == lastPushed || frame == null) {
+            // a frame that is not drawn yet is skipped, the animation stays in phase
+            return;
+        }
+        long minimum = minimumFrameNanos;
+        if (minimum > 0) {
+            long now = System.nanoTime();
+            if (lastPushed != null && now - lastPushNanos < minimum - AnimationClock.COALESCE_NANOS) {
+                // too soon after the last frame, the animation stays in phase and shows a later one
+                behind = true;
+                return;
+            }
+            lastPushNanos = now;
+        }
+        lastPushed = frame;
+        frameConsumer.accept(frame);
     }
 
-    Animation(FXTrayIcon trayIcon, LinkedList<Image> imageList, int frameRateMS) {
-        this.imageList = imageList;
-        this.frameRateMS = frameRateMS;
-        this.trayIcon = trayIcon;
-        this.timeline = this.getTimeline();
+    /**
+     * Starts over from the first step. The tray icon may have been reset
+     * since the last frame was shown, so the first frame is always shown.
+     */
+    private void rewind() {
+        cursor = -1;
+        loopsPlayed = 0;
+        lastPushed = null;
+        behind = false;
+        if (steps.length > 0) {
+            frames.prefetch(steps[0]);
+        }
     }
 
+    /**
+     * Shows the current frame if the frame rate limit held it back, so an
+     * animation that comes to an end always rests on its last frame.
+     */
+    private void catchUp() {
+        Image frame = behind ? frames.get(steps[cursor]) : null;
+        behind = false;
+        if (frame != null) {
+            lastPushed = frame;
+            frameConsumer.accept(frame);
+        }
+    }
+
+    /**
+     * Limits how many frames per second all animations hand to their tray
+     * icon, dropping frames that come too soon after the previous one.
+     *
+     * @param framesPerSecond the highest frame rate, 0 or less for no limit
+     */
+    static void setMaximumFrameRate(double framesPerSecond) {
+        minimumFrameNanos = framesPerSecond <= 0 ? 0 : (long) (1_000_000_000L / framesPerSecond);
+    }
+
+    static double getMaximumFrameRate() {
+        long minimum = minimumFrameNanos;
+        return minimum == 0 ? 0 : 1_000_000_000.0 / minimum;
+    }
+
+    Animation(FXTrayIcon trayIcon, List<Image> imageList, int frameRateMS) {
+        this(trayIcon, imageList, new FrameSequence(frameRateMS));
+    }
+
+    Animation(FXTrayIcon trayIcon, List<Image> imageList, FrameSequence sequence) {
+        this(trayIcon, trayIcon.frameSource(imageList), sequence);
+    }
+
+    Animation(FXTrayIcon trayIcon, FrameSource frames, FrameSequence sequence) {
+        this(trayIcon::setAnimationFrame, frames, sequence);
+        setDriver(trayIcon.getAnimationDriver());
+        this.suspension = trayIcon.getAnimationSuspension();
+        this.idlePredicate = trayIcon.getAnimationIdlePredicate();
+    }
+
+    /**
+     * Creates an Animation that is driven by the given clock instead of
+     * the one belonging to a driver.
+     */
+    Animation(Consumer<Image> frameConsumer, List<Image> imageList, FrameSequence sequence, AnimationClock clock) {
+        this(frameConsumer, FrameSource.of(imageList), sequence, clock);
+    }
+
+    Animation(Consumer<Image> frameConsumer, FrameSource frames, FrameSequence sequence, AnimationClock clock) {
+        this(frameConsumer, frames, sequence);
+        this.driver = AnimationDriver.SHARED_CLOCK;
+        this.clock = clock;
+    }
+
+    /**
+     * The sequence is read once, changing it afterwards does not
+     * affect this Animation.
+     * @param frameConsumer shows a frame, normally {@code FXTrayIcon.setAnimationFrame()}
+     */
+    Animation(Consumer<Image> frameConsumer, List<Image> imageList, FrameSequence sequence) {
+        this(frameConsumer, FrameSource.of(imageList), sequence);
+    }
+
+    Animation(Consumer<Image> frameConsumer, FrameSource frames, FrameSequence sequence) {
+        this.frames = frames;
+        this.steps = sequence.steps(frames.size());
+        this.stepDurationsMS = new int[steps.length];
+        this.stepStartNanos = new long[steps.length];
+        long time = 0;
+        for (int i = 0; i < steps.length; i++) {
+            stepDurationsMS[i] = sequence.getFrameDuration(steps[i]);
+            stepStartNanos[i] = time;
+            time += nanos(stepDurationsMS[i]);
+        }
+        this.loopNanos = time;
+        this.loopCount = sequence.getLoopCount();
+        this.frameConsumer = frameConsumer;
+    }
+
+    /**
+     * The Timeline is only created once it is needed, so that an
+     * Animation can exist without the JavaFX toolkit running.
+     */
     public Timeline timeline() {
+        if (timeline == null) {
+            timeline = getTimeline();
+        }
         return timeline;
     }
 
+    /**
+     * Switches to another driver. A running animation carries on with the
+     * step it is at, which is due when it would have been on the old
+     * driver. A paused animation is stopped.
+     */
+    void setDriver(AnimationDriver driver) {
+        if (driver == null || driver == this.driver) {
+            return;
+        }
+        if (status == Status.STOPPED && pending.get() == null) {
+            switchDriver(driver);
+            return;
+        }
+        onDriverThread(() -> {
+            if (status == Status.RUNNING) {
+                // the place is kept the way it is while suspended, the new driver thaws it
+                if (!frozen) {
+                    freeze();
+                }
+                switchDriver(driver);
+                onDriverThread(() -> {
+                    if (frozen && suspension == 0 && status == Status.RUNNING) {
+                        thaw();
+                    }
+                });
+                return;
+            }
+            if (status != Status.STOPPED) {
+                applyStop();
+            }
+            switchDriver(driver);
+        });
+    }
+
+    private void switchDriver(AnimationDriver driver) {
+        this.clock = AnimationClock.of(driver);
+        this.driver = driver;
+    }
+
+    AnimationDriver getDriver() {
+        return driver;
+    }
+
+    /**
+     * Starts the animation over from its first frame. Like the other
+     * control methods, this may be called from any thread and takes
+     * effect on the driver thread.
+     */
     public void playFromStart() {
-        timeline.playFromStart();
+        request(Command.PLAY_FROM_START);
     }
 
     public void play() {
-        timeline.play();
+        request(Command.PLAY);
     }
 
+    /**
+     * Pausing an animation that has not started yet leaves it stopped.
+     */
     public void pause() {
-        timeline.pause();
+        if (getStatus() == Status.RUNNING) {
+            request(Command.PAUSE);
+        }
     }
 
     public void stop() {
-        timeline.stop();
+        request(Command.STOP);
+    }
+
+    /**
+     * Stops the animation, then runs the given action on the driver thread
+     * once no further frame can be shown, so that the action may put the
+     * tray icon back. The action is left out if the animation was played
+     * again in the meantime.
+     */
+    void stop(Runnable then) {
+        stop();
+        onDriverThread(() -> {
+            if (status == Status.STOPPED) {
+                then.run();
+            }
+        });
+    }
+
+    private void request(Command command) {
+        Command previous;
+        Command next;
+        do {
+            previous = pending.get();
+            // a restart that has not happened yet is not undone by asking to play
+            next = previous == Command.PLAY_FROM_START && command == Command.PLAY ? previous : command;
+        } while (!pending.compareAndSet(previous, next));
+        if (previous == null) {
+            onDriverThread(this::applyPending);
+        }
+    }
+
+    /**
+     * Carries out the latest request, and the ones that come in meanwhile.
+     * The request is only cleared once it is done, so the status reported
+     * in between is the one that was asked for.
+     */
+    private void applyPending() {
+        if (!isDriverThread()) {
+            // the driver changed after the request was made
+            onDriverThread(this::applyPending);
+            return;
+        }
+        Command command = pending.get();
+        while (command != null) {
+            switch (command) {
+                case PLAY:
+                    applyPlay();
+                    break;
+                case PLAY_FROM_START:
+                    applyPlayFromStart();
+                    break;
+                case PAUSE:
+                    applyPause();
+                    break;
+                default:
+                    applyStop();
+            }
+            if (pending.compareAndSet(command, null)) {
+                return;
+            }
+            command = pending.get();
+        }
+    }
+
+    private void applyPlayFromStart() {
+        frozen = false;
+        rewind();
+        if (driver == AnimationDriver.TIMELINE) {
+            timeline().playFromStart();
+            status = Status.RUNNING;
+        }
+        else {
+            startOnClock();
+        }
+        freezeIfSuspended();
+    }
+
+    private void applyPlay() {
+        if (frozen) {
+            return;
+        }
+        if (status == Status.STOPPED) {
+            rewind();
+        }
+        if (driver == AnimationDriver.TIMELINE) {
+            timeline().play();
+            status = Status.RUNNING;
+        }
+        else if (status == Status.PAUSED) {
+            due = clock().now() + remainingNanos;
+            status = Status.RUNNING;
+            clock().schedule(this);
+        }
+        else if (status == Status.STOPPED) {
+            startOnClock();
+        }
+        freezeIfSuspended();
+    }
+
+    private void applyPause() {
+        if (frozen) {
+            // keeps the place where the animation was suspended
+            frozen = false;
+            remainingNanos = 0;
+            status = Status.PAUSED;
+            return;
+        }
+        if (status != Status.RUNNING) {
+            return;
+        }
+        status = Status.PAUSED;
+        if (driver == AnimationDriver.TIMELINE) {
+            timeline().pause();
+        }
+        else {
+            clock().cancel(this);
+            remainingNanos = Math.max(0, due - clock().now());
+        }
+    }
+
+    /**
+     * Sets the reasons for which the animation is suspended, for an
+     * animation that is about to be started.
+     */
+    void setSuspension(int reasons) {
+        if (isStopped()) {
+            suspension = reasons;
+        }
+    }
+
+    private void applyStop() {
+        frozen = false;
+        status = Status.STOPPED;
+        // the predicate is asked again once the animation plays
+        stopIdleWatch();
+        suspension &= ~IDLE;
+        frames.close();
+        if (driver == AnimationDriver.TIMELINE) {
+            timeline().stop();
+        }
+        else {
+            clock().cancel(this);
+        }
+    }
+
+    private AnimationClock clock() {
+        return clock;
+    }
+
+    private void startOnClock() {
+        AnimationClock clock = clock();
+        clock.cancel(this);
+        rewind();
+        // starting right on a frame boundary, for example when taking over from another animation, starts now
+        long now = clock.now() - AnimationClock.COALESCE_NANOS;
+        due = steps.length == 0 ? now : clock.align(now, nanos(stepDurationsMS[0]));
+        status = Status.RUNNING;
+        clock.schedule(this);
+    }
+
+    /**
+     * @return the time at which the next step is due, on the clock's time scale
+     */
+    long due() {
+        return due;
+    }
+
+    /**
+     * Called by the clock once the next step is due. Shows it and works
+     * out when the step after it is due, counting from the time this step
+     * was due rather than from now, so the animation does not drift.
+     *
+     * @return true if the animation wants to be scheduled again
+     */
+    boolean tick(long now) {
+        if (status != Status.RUNNING || frozen || steps.length == 0 || becameIdle()) {
+            return false;
+        }
+        int next = cursor + 1 < steps.length ? cursor + 1 : 0;
+        if (handingOff(next)) {
+            return false;
+        }
+        if (next == 0 && cursor >= 0 && loopCount != FrameSequence.INDEFINITE && loopsPlayed + 1 >= loopCount) {
+            // like a Timeline, a finished animation keeps showing its last frame
+            status = Status.STOPPED;
+            catchUp();
+            frames.close();
+            handingOff(0);
+            return false;
+        }
+        showStep(next);
+        long period = nanos(stepDurationsMS[next]);
+        long nextDue = due + period;
+        // after a long stall, skip the missed steps instead of catching up on them
+        due = nextDue - now > 0 ? nextDue : clock().align(now + 1, period);
+        return true;
+    }
+
+    /**
+     * Stops this animation at the next frame boundary and runs
+     * {@code next} in its place, which usually starts another animation.
+     *
+     * @param atLoopEnd wait until the current loop is over instead of
+     *                  just the current frame
+     */
+    void handOff(Runnable next, boolean atLoopEnd) {
+        handOffAtLoopEnd = atLoopEnd;
+        handOff = next;
+    }
+
+    /**
+     * Runs a pending hand-off if the animation is at a point where it
+     * should happen.
+     *
+     * @param nextStep the step that is about to be shown
+     * @return true if this animation was stopped for another one
+     */
+    private boolean handingOff(int nextStep) {
+        Runnable next = handOff;
+        if (next == null || handOffAtLoopEnd && (nextStep != 0 || cursor < 0) && status != Status.STOPPED) {
+            return false;
+        }
+        handOff = null;
+        applyStop();
+        next.run();
+        return true;
+    }
+
+    private static long nanos(int millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Suspends the animation for the given reason until it is resumed for
+     * that reason and no other reason is left. The animation still counts
+     * as running, but neither wakes up nor touches the tray icon.
+     * Safe to call from any thread.
+     *
+     * @param reason HIDDEN, TRAY_UNAVAILABLE or IDLE
+     */
+    void suspend(int reason) {
+        onDriverThread(() -> {
+            suspension |= reason;
+            freezeIfSuspended();
+        });
+    }
+
+    /**
+     * Lifts a reason for suspending the animation. Once none is left, the
+     * animation carries on with the frame it would be showing had it never
+     * been suspended. Safe to call from any thread.
+     *
+     * @param reason HIDDEN, TRAY_UNAVAILABLE or IDLE
+     */
+    void resume(int reason) {
+        onDriverThread(() -> {
+            suspension &= ~reason;
+            if (suspension == 0 && frozen) {
+                thaw();
+            }
+        });
+    }
+
+    /**
+     * @param idlePredicate suspends the animation while it returns true, may be null
+     */
+    void setIdlePredicate(BooleanSupplier idlePredicate) {
+        this.idlePredicate = idlePredicate;
+    }
+
+    FrameSource getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return the number of frames that were not shown because the animation was suspended
+     */
+    long getSavedTicks() {
+        return savedTicks;
     }
 
+    private void onDriverThread(Runnable action) {
+        if (driver == AnimationDriver.TIMELINE) {
+            if (Platform.isFxApplicationThread()) {
+                action.run();
+            }
+            else {
+                Platform.runLater(action);
+            }
+        }
+        else {
+            clock().execute(action);
+        }
+    }
+
+    private boolean isDriverThread() {
+        return driver == AnimationDriver.TIMELINE ? Platform.isFxApplicationThread() : clock().isDeliveryThread();
+    }
+
+    private void freezeIfSuspended() {
+        if (suspension == 0 || frozen || status != Status.RUNNING) {
+            return;
+        }
+        freeze();
+    }
+
+    /**
+     * Stops the driver and keeps the place the animation is at.
+     */
+    private void freeze() {
+        long now = System.nanoTime();
+        frozenPosition = position(now);
+        frozenAt = now;
+        frozen = true;
+        if (driver == AnimationDriver.TIMELINE) {
+            timeline().pause();
+        }
+        else {
+            clock().cancel(this);
+        }
+    }
+
+    /**
+     * @return how far the animation has got since it started, counting every loop
+     */
+    private long position(long now) {
+        if (driver == AnimationDriver.TIMELINE) {
+            long within = (long) (timeline().getCurrentTime().toMillis() * 1_000_000);
+            // a new loop may have begun without its first step being shown yet
+            long loops = cursor > stepAt(within) ? loopsPlayed + 1 : loopsPlayed;
+            return loops * loopNanos + within;
+        }
+        if (cursor < 0) {
+            // still waiting for the first step, which is due in the future
+            return now - due;
+        }
+        return loopsPlayed * loopNanos + stepStartNanos[cursor] + nanos(stepDurationsMS[cursor]) - (due - now);
+    }
+
+    /**
+     * Moves the animation to where it would be now had it not been
+     * suspended, shows that frame, and lets the driver carry on from there.
+     */
+    private void thaw() {
+        frozen = false;
+        long now = System.nanoTime();
+        long position = frozenPosition + (now - frozenAt);
+        if (position < 0 || loopNanos == 0) {
+            due = now - position;
+            resumeDriver(position);
+            return;
+        }
+        long loops = position / loopNanos;
+        long within = position % loopNanos;
+        int step = stepAt(within);
+        savedTicks += Math.max(0, loops * steps.length + step - ((long) loopsPlayed * steps.length + cursor));
+        if (loopCount != FrameSequence.INDEFINITE && loops >= loopCount) {
+            // the animation ended while it was suspended
+            showStep(steps.length - 1);
+            catchUp();
+            applyStop();
+            return;
+        }
+        if (step != cursor || loops != loopsPlayed) {
+            showStep(step);
+        }
+        loopsPlayed = (int) loops;
+        due = now + stepStartNanos[step] + nanos(stepDurationsMS[step]) - within;
+        resumeDriver(position);
+    }
+
+    private void resumeDriver(long position) {
+        if (driver == AnimationDriver.TIMELINE) {
+            timeline().jumpTo(Duration.millis(Math.max(0, position) / 1_000_000.0));
+            timeline().play();
+        }
+        else {
+            clock().schedule(this);
+        }
+    }
+
+    private int stepAt(long within) {
+        int step = 0;
+        while (step + 1 < steps.length && stepStartNanos[step + 1] <= within) {
+            step++;
+        }
+        return step;
+    }
+
+    /**
+     * Asks the idle predicate whether the animation should be suspended
+     * now, and if so, keeps asking it every now and then until it may
+     * resume.
+     */
+    private boolean becameIdle() {
+        BooleanSupplier predicate = idlePredicate;
+        if (predicate == null || !predicate.getAsBoolean()) {
+            return false;
+        }
+        suspension |= IDLE;
+        freezeIfSuspended();
+        if (idleWatch == null) {
+            idleWatch = AnimationClock.background().repeat(() -> {
+                if (!predicate.getAsBoolean()) {
+                    onDriverThread(this::stopIdleWatch);
+                    resume(IDLE);
+                }
+            }, IDLE_POLL_MS);
+        }
+        return true;
+    }
+
+    private void stopIdleWatch() {
+        if (idleWatch != null) {
+            idleWatch.cancel(false);
+            idleWatch = null;
+        }
+    }
+
+    /**
+     * @return true while the idle predicate is polled for the animation to resume
+     */
+    boolean isWatchingIdle() {
+        return idleWatch != null;
+    }
+
+    /**
+     * The status checks never block, and report the state the animation
+     * was last asked to be in, even before the driver thread got to it.
+     */
     public boolean isRunning() {
-        return timeline.getStatus().equals(javafx.animation.Animation.Status.RUNNING);
+        return getStatus() == Status.RUNNING;
     }
 
     public boolean isPaused() {
-        return timeline.getStatus().equals(javafx.animation.Animation.Status.PAUSED);
+        return getStatus() == Status.PAUSED;
     }
 
     public boolean isStopped() {
-        return timeline.getStatus().equals(javafx.animation.Animation.Status.STOPPED);
+        return getStatus() == Status.STOPPED;
+    }
+
+    /**
+     * @return true if the animation counts as running but is suspended
+     */
+    boolean isSuspended() {
+        return frozen;
+    }
+
+    private Status getStatus() {
+        Command command = pending.get();
+        return command != null ? command.status : status;
     }
 
 }
@@ -0,0 +1,246 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import javafx.application.Platform;
+
+import java.awt.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Drives any number of animations from a single scheduler thread. The
+ * thread sleeps until the earliest animation is due, then hands every
+ * animation that is due by then to the delivery executor in one batch,
+ * and goes back to sleep until the next one. Nothing runs while no
+ * animation is playing.
+ * <p>
+ * Due times are absolute and measured from the epoch of the clock, so
+ * animations with the same frame duration stay in phase with each other
+ * and a late wake-up does not push back the frames that follow it.
+ */
+final class AnimationClock {
+
+    /**
+     * Animations due within this time of a wake-up are handled by it
+     * instead of waking up again a moment later.
+     */
+    static final long COALESCE_NANOS = TimeUnit.MILLISECONDS.toNanos(4);
+
+    private static AnimationClock shared;
+    private static AnimationClock background;
+
+    private final ScheduledExecutorService scheduler;
+    private final Executor delivery;
+    private final BooleanSupplier onDeliveryThread;
+    private final long epoch = System.nanoTime();
+    private final List<Animation> scheduled = new ArrayList<>();
+    private ScheduledFuture<?> pendingWakeUp;
+    private long pendingDue = Long.MAX_VALUE;
+    private long wakeUps;
+
+    /**
+     * @param threadName the name of the scheduler thread
+     * @param priority   the priority of the scheduler thread
+     * @param delivery   runs the batches of due animations
+     * @param onDeliveryThread tells whether the calling thread is the one {@code delivery} runs on
+     */
+    AnimationClock(String threadName, int priority, Executor delivery, BooleanSupplier onDeliveryThread) {
+        this.delivery = delivery;
+        this.onDeliveryThread = onDeliveryThread;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, threadName);
+            thread.setDaemon(true);
+            thread.setPriority(priority);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the clock behind {@link AnimationDriver#SHARED_CLOCK}, which
+     * shows frames on the JavaFX Application Thread
+     */
+    static synchronized AnimationClock shared() {
+        if (shared == null) {
+            shared = new AnimationClock("FXTrayIcon Animation Clock", Thread.NORM_PRIORITY,
+                    Platform::runLater, Platform::isFxApplicationThread);
+        }
+        return shared;
+    }
+
+    /**
+     * @return the clock behind {@link AnimationDriver#BACKGROUND}, which runs
+     * at the lowest priority and shows frames on the AWT Event Dispatch Thread
+     */
+    static synchronized AnimationClock background() {
+        if (background == null) {
+            background = new AnimationClock("FXTrayIcon Background Animation Clock", Thread.MIN_PRIORITY,
+                    EventQueue::invokeLater, EventQueue::isDispatchThread);
+        }
+        return background;
+    }
+
+    /**
+     * @return the clock that drives animations for the given driver, or
+     * null for {@link AnimationDriver#TIMELINE}
+     */
+    static AnimationClock of(AnimationDriver driver) {
+        switch (driver) {
+            case SHARED_CLOCK:
+                return shared();
+            case BACKGROUND:
+                return background();
+            default:
+                return null;
+        }
+    }
+
+    long now() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Rounds a time up to the next multiple of {@code periodNanos} since
+     * the epoch of this clock, so animations started with the same period
+     * tick at the same moments.
+     */
+    long align(long time, long periodNanos) {
+        long sinceEpoch = time - epoch;
+        return epoch + (sinceEpoch + periodNanos - 1) / periodNanos * periodNanos;
+    }
+
+    /**
+     * Schedules an animation for its next due time, see {@link Animation#due()}.
+     */
+    synchronized void schedule(Animation animation) {
+        if (!scheduled.contains(animation)) {
+            scheduled.add(animation);
+        }
+        arm();
+    }
+
+    synchronized void cancel(Animation animation) {
+        scheduled.remove(animation);
+        arm();
+    }
+
+    /**
+     * Runs an action on the thread that frames of this clock are shown on,
+     * right away if that is the calling thread.
+     */
+    void execute(Runnable action) {
+        if (onDeliveryThread.getAsBoolean()) {
+            action.run();
+        }
+        else {
+            delivery.execute(action);
+        }
+    }
+
+    /**
+     * @return true if the calling thread is the one frames of this clock are shown on
+     */
+    boolean isDeliveryThread() {
+        return onDeliveryThread.getAsBoolean();
+    }
+
+    /**
+     * Runs a task on the scheduler thread every {@code periodMS}, for
+     * checks that are too infrequent to need a thread of their own.
+     */
+    ScheduledFuture<?> repeat(Runnable task, long periodMS) {
+        return scheduler.scheduleWithFixedDelay(task, periodMS, periodMS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return how many times the scheduler thread has woken up
+     */
+    synchronized long getWakeUpCount() {
+        return wakeUps;
+    }
+
+    /**
+     * @return the number of animations waiting for their next frame
+     */
+    synchronized int size() {
+        return scheduled.size();
+    }
+
+    /**
+     * Makes sure the scheduler wakes up when the earliest animation is due.
+     */
+    private void arm() {
+        long next = Long.MAX_VALUE;
+        for (Animation animation : scheduled) {
+            next = Math.min(next, animation.due());
+        }
+        if (next == pendingDue) {
+            return;
+        }
+        if (pendingWakeUp != null) {
+            pendingWakeUp.cancel(false);
+            pendingWakeUp = null;
+        }
+        pendingDue = next;
+        if (next != Long.MAX_VALUE) {
+            pendingWakeUp = scheduler.schedule(this::wakeUp, next - now(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void wakeUp() {
+        List<Animation> due = new ArrayList<>();
+        long now;
+        synchronized (this) {
+            wakeUps++;
+            pendingWakeUp = null;
+            pendingDue = Long.MAX_VALUE;
+            now = now();
+            // animations leave the schedule while their frame is delivered
+            for (int i = scheduled.size() - 1; i >= 0; i--) {
+                if (scheduled.get(i).due() - now <= COALESCE_NANOS) {
+                    due.add(scheduled.remove(i));
+                }
+            }
+            arm();
+        }
+        if (!due.isEmpty()) {
+            delivery.execute(() -> deliver(due, now));
+        }
+    }
+
+    private void deliver(List<Animation> due, long now) {
+        for (Animation animation : due) {
+            if (animation.tick(now)) {
+                schedule(animation);
+            }
+        }
+    }
+}
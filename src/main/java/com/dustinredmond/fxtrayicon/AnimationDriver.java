@@ -0,0 +1,56 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+/**
+ * Selects what keeps an animated tray icon moving, see
+ * {@link FXTrayIcon#setAnimationDriver(AnimationDriver)}.
+ */
+public enum AnimationDriver {
+
+    /**
+     * Every animation runs its own JavaFX Timeline, which is available
+     * from {@link FXTrayIcon#getAnimationTimeline()}. This is the default.
+     */
+    TIMELINE,
+
+    /**
+     * All animations share a single clock for the whole application.
+     * The clock only wakes up when at least one animation is due for its
+     * next frame, handles every animation that is due at that moment in
+     * one go on the JavaFX Application Thread, and lines up animations
+     * with the same frame duration so that their frames change together.
+     * Worth using when an application shows more than one animated icon.
+     */
+    SHARED_CLOCK,
+
+    /**
+     * Like SHARED_CLOCK, but the clock runs on a low priority background
+     * thread and frames go straight to the AWT Event Dispatch Thread,
+     * where the tray icon lives. JavaFX is not involved at all, so an
+     * application whose stage is hidden does not keep the JavaFX pulse
+     * busy just to animate its tray icon.
+     */
+    BACKGROUND
+}
@@ -0,0 +1,263 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Frames kept as compressed bytes instead of images, for animations that
+ * spend most of their time registered but not playing. Every few frames
+ * a whole frame is stored, and the frames in between only store the
+ * rectangle in which they differ from the frame before them, all of it
+ * deflated. Frames are decoded when they are shown, into a handful of
+ * rasters that are recycled once they drop out of use.
+ */
+final class CompressedFrames implements FrameSource {
+
+    /**
+     * A whole frame is stored at least this often, so decoding a frame out
+     * of order never has to go back further.
+     */
+    static final int KEYFRAME_INTERVAL = 8;
+
+    /**
+     * The number of decoded frames kept, enough that the frame a tray icon
+     * is showing is never recycled.
+     */
+    static final int DECODED_FRAMES = 4;
+
+    /**
+     * One stored frame, either whole or as the changed rectangle, or the
+     * index of an identical frame before it.
+     */
+    private static final class Encoded {
+
+        private final boolean keyframe;
+        private final Rectangle changed;
+        private final byte[] bytes;
+        private final int sameAs;
+
+        private Encoded(boolean keyframe, Rectangle changed, byte[] bytes, int sameAs) {
+            this.keyframe = keyframe;
+            this.changed = changed;
+            this.bytes = bytes;
+            this.sameAs = sameAs;
+        }
+    }
+
+    private final int width;
+    private final int height;
+    private final Encoded[] encoded;
+    private final long rawBytes;
+    private final long storedBytes;
+    private final Map<Integer, BufferedImage> decoded = new LinkedHashMap<>(16, 0.75f, true);
+    private final Deque<BufferedImage> recycled = new ArrayDeque<>();
+    private final Inflater inflater = new Inflater();
+    private final byte[] scratch;
+
+    /**
+     * @param frames the frames, which are all drawn at the size of the first one
+     */
+    CompressedFrames(List<Image> frames) {
+        if (frames.isEmpty()) {
+            throw new IllegalArgumentException("A compressed animation needs at least one frame.");
+        }
+        Image first = frames.get(0);
+        this.width = first.getWidth(null);
+        this.height = first.getHeight(null);
+        this.scratch = new byte[width * height * 4];
+        this.encoded = new Encoded[frames.size()];
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        int[] previous = null;
+        long stored = 0;
+        for (int i = 0; i < encoded.length; i++) {
+            // atlas frames share the pixels of their sheet, which must not be compared or encoded whole
+            int[] pixels = ImageUtils.pixels(ImageUtils.rasterize(frames.get(i), width, height));
+            if (previous != null && Arrays.equals(previous, pixels)) {
+                Encoded before = encoded[i - 1];
+                encoded[i] = new Encoded(false, null, null, before.sameAs >= 0 ? before.sameAs : i - 1);
+            }
+            else if (previous == null || i % KEYFRAME_INTERVAL == 0) {
+                encoded[i] = new Encoded(true, null,
+                        deflate(deflater, pixels, new Rectangle(width, height)), -1);
+            }
+            else {
+                Rectangle changed = changedArea(previous, pixels);
+                encoded[i] = new Encoded(false, changed, deflate(deflater, pixels, changed), -1);
+            }
+            stored += encoded[i].bytes == null ? 0 : encoded[i].bytes.length;
+            previous = pixels;
+        }
+        deflater.end();
+        this.rawBytes = (long) width * height * 4 * encoded.length;
+        this.storedBytes = stored;
+    }
+
+    @Override
+    public int size() {
+        return encoded.length;
+    }
+
+    @Override
+    public synchronized Image get(int index) {
+        if (encoded[index].sameAs >= 0) {
+            // identical frames are the same image, so the tray icon is not even touched
+            return get(encoded[index].sameAs);
+        }
+        BufferedImage frame = decoded.get(index);
+        if (frame == null) {
+            frame = decode(index);
+            decoded.put(index, frame);
+            if (decoded.size() > DECODED_FRAMES) {
+                Map.Entry<Integer, BufferedImage> eldest = decoded.entrySet().iterator().next();
+                decoded.remove(eldest.getKey());
+                recycled.push(eldest.getValue());
+            }
+        }
+        return frame;
+    }
+
+    /**
+     * Starts from the frame before if it is still decoded, which is the
+     * usual case while an animation plays, otherwise from the last keyframe.
+     */
+    private BufferedImage decode(int index) {
+        int start = index;
+        BufferedImage base = null;
+        while (!encoded[start].keyframe) {
+            start--;
+            base = decoded.get(resolve(start));
+            if (base != null) {
+                break;
+            }
+        }
+        BufferedImage frame = recycled.isEmpty()
+                ? new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE) : recycled.pop();
+        int[] pixels = pixels(frame);
+        if (base != null) {
+            System.arraycopy(pixels(base), 0, pixels, 0, pixels.length);
+        }
+        for (int i = start; i <= index; i++) {
+            Encoded step = encoded[i];
+            if (step.sameAs >= 0 || base != null && i == start) {
+                continue;
+            }
+            inflate(step, pixels);
+        }
+        return frame;
+    }
+
+    private int resolve(int index) {
+        return encoded[index].sameAs >= 0 ? encoded[index].sameAs : index;
+    }
+
+    private void inflate(Encoded step, int[] pixels) {
+        Rectangle area = step.changed == null ? new Rectangle(width, height) : step.changed;
+        int length = area.width * area.height * 4;
+        inflater.reset();
+        inflater.setInput(step.bytes);
+        try {
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                read += inflater.inflate(scratch, read, length - read);
+            }
+        }
+        catch (DataFormatException e) {
+            throw new IllegalStateException("A compressed animation frame is corrupt.", e);
+        }
+        IntBuffer rows = ByteBuffer.wrap(scratch, 0, length).asIntBuffer();
+        for (int y = area.y; y < area.y + area.height; y++) {
+            rows.get(pixels, y * width + area.x, area.width);
+        }
+    }
+
+    private byte[] deflate(Deflater deflater, int[] pixels, Rectangle area) {
+        ByteBuffer bytes = ByteBuffer.allocate(area.width * area.height * 4);
+        IntBuffer rows = bytes.asIntBuffer();
+        for (int y = area.y; y < area.y + area.height; y++) {
+            rows.put(pixels, y * width + area.x, area.width);
+        }
+        deflater.reset();
+        deflater.setInput(bytes.array());
+        deflater.finish();
+        byte[] buffer = new byte[bytes.capacity() + 64];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private Rectangle changedArea(int[] before, int[] after) {
+        int minX = width;
+        int minY = height;
+        int maxX = -1;
+        int maxY = -1;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (before[y * width + x] != after[y * width + x]) {
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = Math.max(maxY, y);
+                }
+            }
+        }
+        return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * @return the size of the frames as images
+     */
+    long getRawBytes() {
+        return rawBytes;
+    }
+
+    /**
+     * @return the size of the frames as stored
+     */
+    long getStoredBytes() {
+        return storedBytes;
+    }
+}
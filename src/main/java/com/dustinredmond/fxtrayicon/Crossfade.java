@@ -0,0 +1,182 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.MultiResolutionImage;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Blends one tray icon into another. The in-between frames for a pair
+ * of icons read by FXTrayIcon are computed once and cached, so fading
+ * back and forth between the same icons only costs the playback.
+ */
+class Crossfade {
+
+    /**
+     * How long each in-between frame is shown.
+     */
+    static final int FRAME_MS = 40;
+
+    private static final int MAXIMUM_SIZE = 16;
+
+    private static final Map<Key, SoftReference<List<Image>>> cache =
+            new LinkedHashMap<Key, SoftReference<List<Image>>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, SoftReference<List<Image>>> eldest) {
+                    return size() > MAXIMUM_SIZE;
+                }
+            };
+
+    private Crossfade() {
+    }
+
+    /**
+     * @param fadeMS how long the whole fade should take
+     * @return the number of frames of a fade, including the target icon
+     */
+    static int frameCount(double fadeMS) {
+        return Math.max(1, (int) Math.round(fadeMS / FRAME_MS));
+    }
+
+    /**
+     * Returns the frames of a fade from one icon to another, the last of
+     * which is the target icon itself.
+     * @param from the icon shown now
+     * @param to the icon to fade to
+     * @param frameCount the number of frames, including the target icon
+     * @return the in-between frames followed by {@code to}
+     */
+    static List<Image> frames(Image from, Image to, int frameCount) {
+        if (!IconDeduplicator.isInterned(base(from)) || !IconDeduplicator.isInterned(base(to))) {
+            // an icon whose pixels can still change, such as an IconBridge, is blended anew every time
+            return blend(base(from), base(to), to, frameCount);
+        }
+        Key key = new Key(base(from), base(to), frameCount);
+        synchronized (cache) {
+            SoftReference<List<Image>> reference = cache.get(key);
+            List<Image> frames = reference == null ? null : reference.get();
+            if (frames != null && frames.get(frames.size() - 1) == to) {
+                return frames;
+            }
+            if (frames != null) {
+                // same variants in a new multi-resolution icon, which has to be the last frame
+                List<Image> retargeted = new ArrayList<>(frames);
+                retargeted.set(retargeted.size() - 1, to);
+                frames = Collections.unmodifiableList(retargeted);
+                cache.put(key, new SoftReference<>(frames));
+                return frames;
+            }
+        }
+        List<Image> frames = blend(base(from), base(to), to, frameCount);
+        synchronized (cache) {
+            cache.put(key, new SoftReference<>(frames));
+        }
+        return frames;
+    }
+
+    /**
+     * Mixes the premultiplied pixels of both icons. In premultiplied form
+     * every channel, alpha included, blends linearly, so icons with
+     * transparent areas fade just as well as opaque ones.
+     */
+    private static List<Image> blend(Image from, Image to, Image target, int frameCount) {
+        int width = to.getWidth(null);
+        int height = to.getHeight(null);
+        int[] a = ImageUtils.pixels(ImageUtils.rasterize(from, width, height));
+        int[] b = ImageUtils.pixels(ImageUtils.rasterize(to, width, height));
+        List<Image> frames = new ArrayList<>(frameCount);
+        for (int f = 1; f < frameCount; f++) {
+            int weight = f * 256 / frameCount;
+            BufferedImage frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            int[] mixed = ImageUtils.pixels(frame);
+            for (int i = 0; i < mixed.length; i++) {
+                mixed[i] = mix(a[i], b[i], weight);
+            }
+            frames.add(frame);
+        }
+        frames.add(target);
+        return Collections.unmodifiableList(frames);
+    }
+
+    private static int mix(int a, int b, int weight) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int ca = a >>> shift & 0xFF;
+            int cb = b >>> shift & 0xFF;
+            result |= (ca + ((cb - ca) * weight + 128 >> 8)) << shift;
+        }
+        return result;
+    }
+
+    /**
+     * A multi-resolution icon is made anew every time the icon is set,
+     * while its variants come from IconCache, so it is blended and cached
+     * by its base variant.
+     */
+    static Image base(Image image) {
+        if (image instanceof MultiResolutionImage) {
+            return ((MultiResolutionImage) image).getResolutionVariant(image.getWidth(null), image.getHeight(null));
+        }
+        return image;
+    }
+
+    /**
+     * Identifies a fade by the identity of both icons, or their base
+     * variants, which are rasters handed out by IconDeduplicator.
+     */
+    private static final class Key {
+
+        private final Image from;
+        private final Image to;
+        private final int frameCount;
+
+        private Key(Image from, Image to, int frameCount) {
+            this.from = from;
+            this.to = to;
+            this.frameCount = frameCount;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return from == key.from && to == key.to && frameCount == key.frameCount;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(from), System.identityHashCode(to), frameCount);
+        }
+    }
+}
@@ -31,16 +31,27 @@ import javafx.event.EventHandler;
 import javafx.scene.control.Menu;
 import javafx.stage.Stage;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.image.BufferedImage;
+import java.beans.PropertyChangeListener;
 import java.io.*;
 import java.net.URL;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -54,9 +65,44 @@ public class FXTrayIcon {
     private static final Integer macLinScale = 22;
     private boolean shown = false;
     private ActionListener exitMenuItemActionListener;
-    private Animation animation;
+    private volatile Animation animation;
+    private final Map<String, Animation> clips = new ConcurrentHashMap<>();
+    private volatile String currentClip;
     private Image icon;
-    private static IconScale iconScale = isWin() ? new IconScale(winScale) : new IconScale(macLinScale);
+    private Animation crossfade;
+    private IconBridge bridge;
+    private final TrayImage trayImage;
+    private final Consumer<BufferedImage> bridgeListener = this::showBridgeImage;
+    private Animation attention;
+    private Image attentionIcon;
+    private boolean attentionBlank;
+    private int attentionBlinkMS;
+    private boolean resumeAfterAttention;
+    private final MouseListener attentionListener = new MouseAdapter() {
+        @Override
+        public void mousePressed(MouseEvent e) {
+            Platform.runLater(FXTrayIcon.this::cancelAttention);
+        }
+    };
+    private static final IconScale DEFAULT_ICON_SCALE = isWin() ? new IconScale(winScale) : new IconScale(macLinScale);
+    private static final IconScaler DEFAULT_SCALER = IconScaler.AREA_AVERAGING;
+    private IconScale iconScale = DEFAULT_ICON_SCALE;
+    private IconScaler iconScaler = DEFAULT_SCALER;
+    private IconScaler frameScaler = DEFAULT_SCALER;
+    private Executor frameLoadingExecutor;
+    private int frameLoadingParallelism = Runtime.getRuntime().availableProcessors();
+    private BiConsumer<File, Exception> frameLoadErrorHandler;
+    private AnimationDriver animationDriver = AnimationDriver.TIMELINE;
+    private final FramePacer framePacer = new FramePacer(this::showAnimationFrame);
+    private final AtomicLong skippedIconUpdates = new AtomicLong();
+    // changed on the JavaFX thread and, when the desktop's tray comes and goes, on the AWT thread
+    private final AtomicInteger animationSuspension = new AtomicInteger();
+    // there is nothing to animate while the desktop has no tray, for example while its panel restarts
+    private final PropertyChangeListener trayListener =
+            e -> suspendAnimation(Animation.TRAY_UNAVAILABLE, e.getNewValue() == null);
+    private BooleanSupplier animationIdlePredicate;
+    private boolean compressFrames;
+    private boolean multiResolution;
 
     /**
      * The default AWT SystemTray
@@ -167,7 +213,7 @@ public class FXTrayIcon {
      */
     @API
     public FXTrayIcon(Stage parentStage, URL iconImagePath, int iconWidth, int iconHeight) {
-        this(parentStage, loadImageFromURL(iconImagePath, iconWidth, iconHeight), true);
+        this(parentStage, loadImageFromURL(iconImagePath, iconWidth, iconHeight, DEFAULT_SCALER), true);
     }
 
     /**
@@ -179,7 +225,7 @@ public class FXTrayIcon {
      */
     @API
     public FXTrayIcon(Stage parentStage, URL iconImagePath) {
-        this(parentStage, loadImageFromURL(iconImagePath), true);
+        this(parentStage, loadImageFromURL(iconImagePath, DEFAULT_ICON_SCALE, DEFAULT_SCALER), true);
     }
 
     /**
@@ -195,7 +241,7 @@ public class FXTrayIcon {
      */
     @API
     public FXTrayIcon(Stage parentStage, File iconFile, int iconWidth, int iconHeight) {
-        this(parentStage, loadImageFromFile(iconFile, iconWidth, iconHeight), true);
+        this(parentStage, loadImageFromFile(iconFile, iconWidth, iconHeight, DEFAULT_SCALER), true);
     }
 
     /**
@@ -207,7 +253,7 @@ public class FXTrayIcon {
      */
     @API
     public FXTrayIcon(Stage parentStage, File iconFile) {
-        this(parentStage, loadImageFromFile(iconFile), true);
+        this(parentStage, loadImageFromFile(iconFile, DEFAULT_ICON_SCALE, DEFAULT_SCALER), true);
     }
 
     /**
@@ -223,7 +269,7 @@ public class FXTrayIcon {
      */
     @API
     public FXTrayIcon(Stage parentStage, javafx.scene.image.Image javaFXImage, int iconWidth, int iconHeight) {
-        this(parentStage, loadImageFromFX(javaFXImage, iconWidth, iconHeight), true);
+        this(parentStage, loadImageFromFX(javaFXImage, iconWidth, iconHeight, DEFAULT_SCALER), true);
     }
 
     /**
@@ -235,7 +281,7 @@ public class FXTrayIcon {
      */
     @API
     public FXTrayIcon(Stage parentStage, javafx.scene.image.Image javaFXImage) {
-        this(parentStage, loadImageFromFX(javaFXImage), true);
+        this(parentStage, loadImageFromFX(javaFXImage, DEFAULT_ICON_SCALE, DEFAULT_SCALER), true);
     }
 
     /**
@@ -250,7 +296,7 @@ public class FXTrayIcon {
      */
     @API
     public FXTrayIcon(Stage parentStage, Image image, int iconWidth, int iconHeight) {
-        this(parentStage, loadImageFromAWT(image, iconWidth, iconHeight), true);
+        this(parentStage, loadImageFromAWT(image, iconWidth, iconHeight, DEFAULT_SCALER), true);
     }
 
     /**
@@ -262,7 +308,21 @@ public class FXTrayIcon {
      */
     @API
     public FXTrayIcon(Stage parentStage, Image image) {
-        this(parentStage, loadImageFromAWT(image), true);
+        this(parentStage, loadImageFromAWT(image, DEFAULT_ICON_SCALE, DEFAULT_SCALER), true);
+    }
+
+    /**
+     * Creates an instance of FXTrayIcon with an icon taken from
+     * an IconAtlas and a provided{@code javafx.stage.Stage} as its parent.
+     *
+     * @param parentStage The parent Stage of the tray icon.
+     * @param atlas       An IconAtlas (sprite sheet) holding the icon
+     * @param iconName    The name of the icon within the atlas
+     */
+    @API
+    public FXTrayIcon(Stage parentStage, IconAtlas atlas, String iconName) {
+        this(parentStage, loadImageFromAtlas(atlas, iconName, DEFAULT_ICON_SCALE.width(), DEFAULT_ICON_SCALE.height(),
+                DEFAULT_SCALER), true);
     }
 
     private FXTrayIcon(Stage parentStage, Image image, boolean finalCall) {
@@ -284,6 +344,7 @@ public class FXTrayIcon {
         this.restricted = new Restricted(image, parentStage.getTitle(), popupMenu);
         this.trayIcon = this.restricted.getTrayIcon();
         this.trayIcon.setImageAutoSize(true);
+        this.trayImage = new TrayImage(this.trayIcon::getImage, this.trayIcon::setImage);
     }
 
     /**
@@ -315,7 +376,7 @@ public class FXTrayIcon {
     public static class Builder {
 
         private enum ConstructorImageOption {
-            IMAGE, URL, FILE, FX_IMAGE, DEFAULT
+            IMAGE, URL, FILE, FX_IMAGE, ATLAS, DEFAULT
         }
 
         private final ConstructorImageOption cio;
@@ -324,6 +385,8 @@ public class FXTrayIcon {
         private File conImageFile;
         private Image conImage;
         private javafx.scene.image.Image conFXImage;
+        private IconAtlas conAtlas;
+        private String conAtlasIconName;
 
         private String tooltip = "";
         private String appTitle;
@@ -339,12 +402,30 @@ public class FXTrayIcon {
         protected int frameRateMS;
         protected LinkedList<File> ImageFileList = null;
         protected LinkedList<javafx.scene.image.Image> ImageList = null;
+        private IconAtlas animationAtlas;
+        private Executor frameLoadingExecutor;
+        private int frameLoadingParallelism = Runtime.getRuntime().availableProcessors();
+        private BiConsumer<File, Exception> frameLoadErrorHandler;
+        private AnimationDriver animationDriver = AnimationDriver.TIMELINE;
+        private BooleanSupplier animationIdlePredicate;
+        private boolean compressFrames;
+        private boolean multiResolution;
+        private IconScale iconScale = DEFAULT_ICON_SCALE;
+        private IconScaler iconScaler = DEFAULT_SCALER;
+        private IconScaler frameScaler = DEFAULT_SCALER;
+        private final List<Consumer<FXTrayIcon>> clipRegistrations = new ArrayList<>();
+        private IntFunction<BufferedImage> frameGenerator;
+        private int generatedFrameCount;
+        private PaletteCycle paletteCycle;
+        private URL animatedImageURL;
+        private File animatedImageFile;
+        private FrameSequence frameSequence;
 
 
         /**
          * By default, any method that accepts an icon but also does not require the dimensions, uses a default value
          * depending on the operating system and this method will overwrite those values and become the new default
-         * values for anything you do concerning icons in FXTrayIcon.
+         * values for anything you do concerning icons in the FXTrayIcon that is built.
          *
          * @param width  icon width in pixels
          * @param height icon height in pixels
@@ -367,6 +448,25 @@ public class FXTrayIcon {
             return this;
         }
 
+        /**
+         * Reads and scales the given icons ahead of time so that switching to them later
+         * with setGraphic() does not have to decode them again. The icons are prepared
+         * at the icon size in effect when this method is called, or at every size when
+         * multiResolution() was called, so place it after setIconSize() and
+         * multiResolution() in your build sentence.
+         *
+         * @param iconImagePaths one or more java.net.URL objects
+         * @return this Builder
+         */
+        @API
+        public Builder preload(URL... iconImagePaths) {
+            for (URL iconImagePath : iconImagePaths) {
+                loadStaticIcon((w, h) -> loadImageFromURL(iconImagePath, w, h, iconScaler), iconScale,
+                        multiResolution);
+            }
+            return this;
+        }
+
         /**
          * @deprecated Use the setIconSize() method or the equivalent Builder method. See README for more information.
          * @param parentStage   The parent Stage of the tray icon.
@@ -493,6 +593,22 @@ public class FXTrayIcon {
             cio = ConstructorImageOption.IMAGE;
         }
 
+        /**
+         * Creates an instance of FXTrayIcon with an icon taken from
+         * an IconAtlas and a provided {@code javafx.stage.Stage} as its parent.
+         *
+         * @param parentStage The parent Stage of the tray icon.
+         * @param atlas       An IconAtlas (sprite sheet) holding the icon
+         * @param iconName    The name of the icon within the atlas
+         */
+        @API
+        public Builder(Stage parentStage, IconAtlas atlas, String iconName) {
+            this.parentStage = parentStage;
+            conAtlas = atlas;
+            conAtlasIconName = iconName;
+            cio = ConstructorImageOption.ATLAS;
+        }
+
         /**
          * Use this constructor to have FXTrayIcon use a default graphic for the tray icon.
          * This can be handy for "quick and dirty" runs of the library so that you don't need
@@ -520,12 +636,44 @@ public class FXTrayIcon {
          */
         @API
         public Builder animate(LinkedList<javafx.scene.image.Image> imageList, int frameRateMS) {
-            this.imageList = new LinkedList<>();
+            clearAnimationSource();
             this.ImageList = imageList;
             this.frameRateMS = frameRateMS;
             return this;
         }
 
+        /**
+         * Add an optional animated icon to FXTrayIcon by passing in a List of JavaFX Image objects where each
+         * image is a single frame of the animation, and a FrameSequence that says how long each frame is shown,
+         * in which order the frames are played and how many times the animation repeats. Holding a frame or
+         * playing the frames back and forth does not need extra copies of the frames.
+         *
+         * @param imageList - List containing javafx.scene.image.Image objects
+         * @param sequence  - the FrameSequence describing how the frames are played.
+         * @return this builder object.
+         */
+        @API
+        public Builder animate(List<javafx.scene.image.Image> imageList, FrameSequence sequence) {
+            clearAnimationSource();
+            this.ImageList = new LinkedList<>(imageList);
+            this.frameRateMS = sequence.getFrameDuration();
+            this.frameSequence = sequence;
+            return this;
+        }
+
+        /**
+         * Add an optional animated icon to FXTrayIcon by passing in JavaFX Image objects where each image is
+         * a single frame of the animation, and a FrameSequence that says how the frames are played.
+         *
+         * @param images   - javafx.scene.image.Image objects, one per frame
+         * @param sequence - the FrameSequence describing how the frames are played.
+         * @return this builder object.
+         */
+        @API
+        public Builder animate(javafx.scene.image.Image[] images, FrameSequence sequence) {
+            return animate(Arrays.asList(images), sequence);
+        }
+
         /**
          * Add an optional animated icon to FXTrayIcon by passing in a LinkedList of JavaFX Files where each file
          * is an image for each frame of the animation and optionally set the flag to have that file list sorted by
@@ -543,7 +691,7 @@ public class FXTrayIcon {
          */
         @API
         public Builder animate(LinkedList<File> imageFileList, int frameRateMS, boolean sortList) {
-            this.imageList = new LinkedList<>();
+            clearAnimationSource();
             ImageFileList = new LinkedList<>(imageFileList);
             if (sortList)
                 ImageFileList.sort(Comparator.comparing(File::getName));
@@ -551,6 +699,324 @@ public class FXTrayIcon {
             return this;
         }
 
+        /**
+         * Add an optional animated icon to FXTrayIcon by passing in a List of Files where each file is an image
+         * for each frame of the animation, optionally sorted by filename, and a FrameSequence that says how long
+         * each frame is shown, in which order the frames are played and how many times the animation repeats.
+         *
+         * @param imageFileList - List containing java.io.File objects
+         * @param sequence      - the FrameSequence describing how the frames are played.
+         * @param sortList      - boolean indicating that you want the file list sorted by filename.
+         * @return this builder object.
+         */
+        @API
+        public Builder animate(List<File> imageFileList, FrameSequence sequence, boolean sortList) {
+            clearAnimationSource();
+            this.ImageFileList = new LinkedList<>(imageFileList);
+            if (sortList)
+                ImageFileList.sort(Comparator.comparing(File::getName));
+            this.frameRateMS = sequence.getFrameDuration();
+            this.frameSequence = sequence;
+            return this;
+        }
+
+        /**
+         * Add an optional animated icon to FXTrayIcon by passing in Files where each file is an image for each
+         * frame of the animation, in playback order, and a FrameSequence that says how the frames are played.
+         *
+         * @param imageFiles - java.io.File objects, one per frame
+         * @param sequence   - the FrameSequence describing how the frames are played.
+         * @return this builder object.
+         */
+        @API
+        public Builder animate(File[] imageFiles, FrameSequence sequence) {
+            return animate(Arrays.asList(imageFiles), sequence, false);
+        }
+
+        /**
+         * Add an optional animated icon to FXTrayIcon whose frames are the icons of an IconAtlas (sprite sheet),
+         * in the order of the atlas. The sheet is only read once for all frames, you also need to specify the
+         * time delay between frames.
+         *
+         * @param atlas       - IconAtlas holding the frames of the animation
+         * @param frameRateMS - this an integer that defines the time delay between each image in milliseconds.
+         * @return this builder object.
+         */
+        @API
+        public Builder animate(IconAtlas atlas, int frameRateMS) {
+            clearAnimationSource();
+            this.animationAtlas = atlas;
+            this.frameRateMS = frameRateMS;
+            return this;
+        }
+
+        /**
+         * Add an optional animated icon to FXTrayIcon whose frames are drawn by a function of the frame index,
+         * for example a spinner or a pulsing dot. A frame is drawn on a background thread the first time it is
+         * needed, scaled to the icon size and kept for the next loop, so the animation costs nothing until it
+         * plays. Frames may be dropped when memory runs low, in which case they are drawn again.
+         *
+         * @param frameGenerator - draws the frame with the given index, from 0 to frameCount - 1.
+         * @param frameCount     - the number of frames of the animation.
+         * @param sequence       - the FrameSequence describing how the frames are played.
+         * @return this builder object.
+         */
+        @API
+        public Builder animate(IntFunction<BufferedImage> frameGenerator, int frameCount, FrameSequence sequence) {
+            clearAnimationSource();
+            this.frameGenerator = frameGenerator;
+            this.generatedFrameCount = frameCount;
+            this.frameRateMS = sequence.getFrameDuration();
+            this.frameSequence = sequence;
+            return this;
+        }
+
+        /**
+         * Add an optional animated icon to FXTrayIcon that shows one indexed-colour image with a different
+         * palette in each frame, for icons that pulse or rotate their colours. All frames share the pixels
+         * of the image, so the animation needs one image plus a small palette per frame.
+         *
+         * @param paletteCycle - the image and the palettes of the frames.
+         * @param sequence     - the FrameSequence describing how the frames are played.
+         * @return this builder object.
+         */
+        @API
+        public Builder animate(PaletteCycle paletteCycle, FrameSequence sequence) {
+            clearAnimationSource();
+            this.paletteCycle = paletteCycle;
+            this.frameRateMS = sequence.getFrameDuration();
+            this.frameSequence = sequence;
+            return this;
+        }
+
+        /**
+         * Add an optional animated icon to FXTrayIcon whose frames are the icons of an IconAtlas (sprite sheet),
+         * in the order of the atlas, played as described by a FrameSequence.
+         *
+         * @param atlas    - IconAtlas holding the frames of the animation
+         * @param sequence - the FrameSequence describing how the frames are played.
+         * @return this builder object.
+         */
+        @API
+        public Builder animate(IconAtlas atlas, FrameSequence sequence) {
+            animate(atlas, sequence.getFrameDuration());
+            this.frameSequence = sequence;
+            return this;
+        }
+
+        /**
+         * Add an optional animated icon to FXTrayIcon from a single animated GIF or APNG image. Each frame
+         * of the image is shown for its own delay and the image repeats as often as it asks to, as stored in the
+         * image. The frames are read one at a time and scaled to the icon size right away, so large images
+         * do not need a lot of memory.
+         * <p>
+         * To use an image on the classpath, pass in the URL returned by {@code getClass().getResource()}.
+         *
+         * @param animatedImage - URL of an animated GIF or APNG image.
+         * @return this builder object.
+         */
+        @API
+        public Builder animate(URL animatedImage) {
+            clearAnimationSource();
+            this.animatedImageURL = animatedImage;
+            return this;
+        }
+
+        /**
+         * Add an optional animated icon to FXTrayIcon from a single animated GIF or APNG file. Each frame
+         * of the image is shown for its own delay and the image repeats as often as it asks to, as stored in the
+         * image. The frames are read one at a time and scaled to the icon size right away, so large images
+         * do not need a lot of memory.
+         *
+         * @param animatedImage - an animated GIF or APNG file.
+         * @return this builder object.
+         */
+        @API
+        public Builder animate(File animatedImage) {
+            clearAnimationSource();
+            this.animatedImageFile = animatedImage;
+            return this;
+        }
+
+        /**
+         * Forgets the animation given to an earlier call of an animate() method, so that only the last one is used.
+         */
+        private void clearAnimationSource() {
+            this.imageList = null;
+            this.ImageList = null;
+            this.ImageFileList = null;
+            this.animationAtlas = null;
+            this.animatedImageURL = null;
+            this.animatedImageFile = null;
+            this.frameGenerator = null;
+            this.generatedFrameCount = 0;
+            this.paletteCycle = null;
+            this.frameSequence = null;
+        }
+
+        /**
+         * Animation frames are decoded and scaled on several threads at once. By default, the common
+         * ForkJoinPool is used, this method lets you supply your own Executor instead.
+         *
+         * @param executor - the Executor that animation frames are loaded on.
+         * @return this builder object.
+         */
+        @API
+        public Builder frameLoadingExecutor(Executor executor) {
+            this.frameLoadingExecutor = executor;
+            return this;
+        }
+
+        /**
+         * Sets how many animation frames may be decoded and scaled at the same time. The default is the
+         * number of available processors, and a value of 1 loads the frames one after another on the
+         * thread that calls build().
+         *
+         * @param parallelism - the maximum number of frames loaded at the same time.
+         * @return this builder object.
+         */
+        @API
+        public Builder frameLoadingParallelism(int parallelism) {
+            this.frameLoadingParallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Adds a handler that is called for every animation frame File that could not be loaded.
+         * The remaining frames are still used for the animation. Without a handler, build() throws
+         * an IllegalStateException naming all files that failed once every frame has been attempted.
+         *
+         * @param handler - receives the File that failed and the reason it failed.
+         * @return this builder object.
+         */
+        @API
+        public Builder onFrameLoadError(BiConsumer<File, Exception> handler) {
+            this.frameLoadErrorHandler = handler;
+            return this;
+        }
+
+        /**
+         * Chooses what drives the animated icon. By default, every animation runs its own JavaFX Timeline.
+         * With AnimationDriver.SHARED_CLOCK, all animated icons of the application share one clock that
+         * only wakes up when a frame is due, which saves work when several animated icons are shown.
+         * AnimationDriver.BACKGROUND does the same on a low priority thread without involving JavaFX,
+         * which suits applications that mostly run with their stage hidden.
+         *
+         * @param driver - the AnimationDriver for the animation.
+         * @return this builder object.
+         */
+        @API
+        public Builder animationDriver(AnimationDriver driver) {
+            this.animationDriver = driver == null ? AnimationDriver.TIMELINE : driver;
+            return this;
+        }
+
+        /**
+         * Suspends the animated icon while the given predicate returns true, for example while the
+         * application has nothing to report. The predicate is asked before every frame, and about
+         * twice a second while the animation is suspended, so it should be cheap.
+         *
+         * @param idlePredicate - returns true while the animation does not need to run.
+         * @return this builder object.
+         */
+        @API
+        public Builder animationIdlePredicate(BooleanSupplier idlePredicate) {
+            this.animationIdlePredicate = idlePredicate;
+            return this;
+        }
+
+        /**
+         * Keeps the frames of the animated icon and of animation clips compressed in memory, see
+         * FXTrayIcon.setCompressFrames(boolean).
+         *
+         * @return this builder object.
+         */
+        @API
+        public Builder compressFrames() {
+            this.compressFrames = true;
+            return this;
+        }
+
+        /**
+         * Renders the tray icon at several sizes, with the size of a tray icon slot as its base size,
+         * see FXTrayIcon.setMultiResolution(boolean).
+         *
+         * @return this builder object.
+         */
+        @API
+        public Builder multiResolution() {
+            this.multiResolution = true;
+            return this;
+        }
+
+        /**
+         * Chooses how static icons are scaled to the icon size, see FXTrayIcon.setIconScaler(IconScaler).
+         *
+         * @param scaler - the IconScaler for static icons.
+         * @return this builder object.
+         */
+        @API
+        public Builder iconScaler(IconScaler scaler) {
+            this.iconScaler = scaler == null ? DEFAULT_SCALER : scaler;
+            return this;
+        }
+
+        /**
+         * Chooses how animation frames are scaled to the icon size, see FXTrayIcon.setFrameScaler(IconScaler).
+         *
+         * @param scaler - the IconScaler for animation frames.
+         * @return this builder object.
+         */
+        @API
+        public Builder frameScaler(IconScaler scaler) {
+            this.frameScaler = scaler == null ? DEFAULT_SCALER : scaler;
+            return this;
+        }
+
+        /**
+         * Registers a named animation clip, which is loaded once when build() is called. Switch between
+         * clips with FXTrayIcon.transitionTo().
+         *
+         * @param name      - the name of the clip, for example "idle" or "syncing".
+         * @param imageList - List containing javafx.scene.image.Image objects, one per frame.
+         * @param sequence  - the FrameSequence describing how the frames are played.
+         * @return this builder object.
+         */
+        @API
+        public Builder clip(String name, List<javafx.scene.image.Image> imageList, FrameSequence sequence) {
+            clipRegistrations.add(trayIcon -> trayIcon.registerClip(name, imageList, sequence));
+            return this;
+        }
+
+        /**
+         * Registers a named animation clip whose frames are the icons of an IconAtlas, which is loaded once
+         * when build() is called. Switch between clips with FXTrayIcon.transitionTo().
+         *
+         * @param name     - the name of the clip, for example "idle" or "syncing".
+         * @param atlas    - IconAtlas holding the frames of the clip.
+         * @param sequence - the FrameSequence describing how the frames are played.
+         * @return this builder object.
+         */
+        @API
+        public Builder clip(String name, IconAtlas atlas, FrameSequence sequence) {
+            clipRegistrations.add(trayIcon -> trayIcon.registerClip(name, atlas, sequence));
+            return this;
+        }
+
+        /**
+         * Registers a named animation clip from an animated GIF or APNG image, which is loaded once when
+         * build() is called. Switch between clips with FXTrayIcon.transitionTo().
+         *
+         * @param name          - the name of the clip, for example "idle" or "syncing".
+         * @param animatedImage - URL of an animated GIF or APNG image.
+         * @return this builder object.
+         */
+        @API
+        public Builder clip(String name, URL animatedImage) {
+            clipRegistrations.add(trayIcon -> trayIcon.registerClip(name, animatedImage));
+            return this;
+        }
+
         /**
          * Add a MenuItem without passing your own.
          * This can be used repeatedly and the menuItems will be shown in the order you place them in your build sentence.
@@ -818,7 +1284,17 @@ public class FXTrayIcon {
             loadIcon();
             checkAnimation();
             FXTrayIcon fxTrayIcon = new FXTrayIcon(this);
-            if (imageList != null) {
+            clipRegistrations.forEach(registration -> registration.accept(fxTrayIcon));
+            if (imageList != null && frameSequence != null) {
+                fxTrayIcon.animation = new Animation(fxTrayIcon, imageList, frameSequence);
+            }
+            else if (frameGenerator != null) {
+                fxTrayIcon.newAnimation(frameGenerator, generatedFrameCount, frameSequence);
+            }
+            else if (paletteCycle != null) {
+                fxTrayIcon.newAnimation(paletteCycle, frameSequence);
+            }
+            else if (imageList != null) {
                 fxTrayIcon.animation = new Animation(fxTrayIcon, imageList, frameRateMS);
             }
             return fxTrayIcon;
@@ -827,23 +1303,29 @@ public class FXTrayIcon {
         private void loadIcon() {
             switch (cio) {
                 case URL: {
-                    icon = loadImageFromURL(conImageURL, iconScale.width(), iconScale.height());
+                    icon = loadStaticIcon((w, h) -> loadImageFromURL(conImageURL, w, h, iconScaler), iconScale, multiResolution);
                     break;
                 }
                 case FILE: {
-                    icon = loadImageFromFile(conImageFile, iconScale.width(), iconScale.height());
+                    icon = loadStaticIcon((w, h) -> loadImageFromFile(conImageFile, w, h, iconScaler), iconScale, multiResolution);
                     break;
                 }
                 case IMAGE: {
-                    icon = loadImageFromAWT(conImage, iconScale.width(), iconScale.height());
+                    icon = loadStaticIcon((w, h) -> loadImageFromAWT(conImage, w, h, iconScaler), iconScale, multiResolution);
                     break;
                 }
                 case FX_IMAGE: {
-                    icon = loadImageFromFX(conFXImage, iconScale.width(), iconScale.height());
+                    icon = loadStaticIcon((w, h) -> loadImageFromFX(conFXImage, w, h, iconScaler), iconScale, multiResolution);
+                    break;
+                }
+                case ATLAS: {
+                    icon = loadStaticIcon((w, h) -> loadImageFromAtlas(conAtlas, conAtlasIconName, w, h, iconScaler),
+                            iconScale, multiResolution);
                     break;
                 }
                 case DEFAULT: {
-                    icon = loadDefaultIconImage();
+                    URL defaultIcon = FXTrayIcon.class.getResource("FXIconRedWhite.png");
+                    icon = loadStaticIcon((w, h) -> loadImageFromURL(defaultIcon, w, h, iconScaler), iconScale, multiResolution);
                     break;
                 }
                 default:
@@ -852,16 +1334,25 @@ public class FXTrayIcon {
 
         private void checkAnimation() {
             if (ImageList != null) {
-                for (javafx.scene.image.Image fxImage : ImageList) {
-                    this.imageList.addLast(loadImageFromFX(fxImage, iconScale.width(), iconScale.height()));
-                }
+                this.imageList = FrameLoader.loadFrames(ImageList,
+                        fxImage -> loadImageFromFX(fxImage, iconScale.width(), iconScale.height(), frameScaler),
+                        frameLoadingExecutor, frameLoadingParallelism, null);
             }
             else if (this.ImageFileList != null) {
-                for (File file : ImageFileList) {
-                    imageList.addLast(loadImageFromFile(file, iconScale.width(), iconScale.height()));
-                }
+                this.imageList = FrameLoader.loadFrames(ImageFileList,
+                        file -> loadImageFromFile(file, iconScale.width(), iconScale.height(), frameScaler),
+                        frameLoadingExecutor, frameLoadingParallelism, frameLoadErrorHandler);
+            }
+            else if (animationAtlas != null) {
+                this.imageList = loadFramesFromAtlas(animationAtlas, iconScale.width(), iconScale.height(), frameScaler);
+            }
+            else if (animatedImageURL != null || animatedImageFile != null) {
+                AnimatedImageReader reader = animatedImageURL != null
+                        ? loadAnimatedImage(animatedImageURL, iconScale.width(), iconScale.height(), frameScaler)
+                        : loadAnimatedImage(animatedImageFile, iconScale.width(), iconScale.height(), frameScaler);
+                this.imageList = reader.frames();
+                this.frameSequence = reader.sequence();
             }
-
         }
     }
 
@@ -881,6 +1372,16 @@ public class FXTrayIcon {
         this.exitMenuItemLabel = build.exitMenuItemLabel;
         this.exitMenuItemActionListener = build.exitMenuItemActionListener;
         this.noDefaultAction = build.noDefaultAction;
+        this.frameLoadingExecutor = build.frameLoadingExecutor;
+        this.frameLoadingParallelism = build.frameLoadingParallelism;
+        this.frameLoadErrorHandler = build.frameLoadErrorHandler;
+        this.animationDriver = build.animationDriver;
+        this.animationIdlePredicate = build.animationIdlePredicate;
+        this.compressFrames = build.compressFrames;
+        this.multiResolution = build.multiResolution;
+        this.iconScale = build.iconScale;
+        this.iconScaler = build.iconScaler;
+        this.frameScaler = build.frameScaler;
         if (!build.tooltip.equals("")) setTooltip(build.tooltip);
         if (build.event != null) setOnAction(build.event);
         for (int i = 0; i < BuildOrderUtil.getItemCount(); i++) {
@@ -936,73 +1437,147 @@ public class FXTrayIcon {
         }
     }
 
-    private static Image loadImageFromURL(URL iconImagePath) {
-        return loadImageFromURL(iconImagePath, iconScale.width(), iconScale.height());
+    private static Image loadImageFromURL(URL iconImagePath, IconScale scale, IconScaler scaler) {
+        return loadImageFromURL(iconImagePath, scale.width(), scale.height(), scaler);
     }
 
-    private static Image loadImageFromURL(URL iconImagePath, int iconWidth, int iconHeight) {
-        try {
-            return ImageIO.read(iconImagePath)
-                    .getScaledInstance(iconWidth, iconHeight, Image.SCALE_SMOOTH);
-        }
-        catch (IOException e) {
-            throw new IllegalStateException("Unable to read the Image at the provided path: " + iconImagePath, e);
-        }
+    private static Image loadImageFromURL(URL iconImagePath, int iconWidth, int iconHeight, IconScaler scaler) {
+        return IconCache.get(iconImagePath, iconWidth, iconHeight, scaler, () -> {
+            try {
+                BufferedImage source = IconCache.source(iconImagePath, () -> {
+                    try (InputStream is = iconImagePath.openStream()) {
+                        return IconDecoders.read(is);
+                    }
+                });
+                return IconDeduplicator.intern(ImageUtils.rasterize(source, iconWidth, iconHeight, scaler));
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Unable to read the Image at the provided path: " + iconImagePath, e);
+            }
+        });
     }
 
-    private static Image loadImageFromFile(File file) {
-        return loadImageFromFile(file, iconScale.width(), iconScale.height());
+    private static Image loadImageFromFile(File file, IconScale scale, IconScaler scaler) {
+        return loadImageFromFile(file, scale.width(), scale.height(), scaler);
     }
 
-    private static Image loadImageFromFile(File file, int iconWidth, int iconHeight) {
-        try (InputStream is = new FileInputStream(file)) {
-            return ImageIO.read(is)
-                    .getScaledInstance(iconWidth, iconHeight, Image.SCALE_SMOOTH);
-        }
-        catch (FileNotFoundException e) {
-            throw new IllegalStateException("Unable to load the Image at the provided path (File not found): " + file.getAbsolutePath(), e);
-        }
-        catch (IOException e) {
-            throw new IllegalStateException("Unable to read the Image at the provided path (perhaps not an image file, or it is corrupt): " + file.getAbsolutePath(), e);
-        }
+    private static Image loadImageFromFile(File file, int iconWidth, int iconHeight, IconScaler scaler) {
+        return IconCache.get(file, iconWidth, iconHeight, scaler, () -> {
+            try {
+                BufferedImage source = IconCache.source(file, () -> {
+                    try (InputStream is = new FileInputStream(file)) {
+                        return IconDecoders.read(is);
+                    }
+                });
+                return IconDeduplicator.intern(ImageUtils.rasterize(source, iconWidth, iconHeight, scaler));
+            }
+            catch (FileNotFoundException e) {
+                throw new IllegalStateException("Unable to load the Image at the provided path (File not found): " + file.getAbsolutePath(), e);
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Unable to read the Image at the provided path (perhaps not an image file, or it is corrupt): " + file.getAbsolutePath(), e);
+            }
+        });
     }
 
-    private static Image loadImageFromFX(javafx.scene.image.Image javaFXImage) {
-        return loadImageFromFX(javaFXImage, iconScale.width(), iconScale.height());
+    private static Image loadImageFromFX(javafx.scene.image.Image javaFXImage, IconScale scale, IconScaler scaler) {
+        return loadImageFromFX(javaFXImage, scale.width(), scale.height(), scaler);
     }
 
-    private static Image loadImageFromFX(javafx.scene.image.Image javaFXImage, int iconWidth, int iconHeight) {
-        return SwingFXUtils.fromFXImage(javaFXImage, null).getScaledInstance(iconWidth, iconHeight, Image.SCALE_SMOOTH);
+    private static Image loadImageFromFX(javafx.scene.image.Image javaFXImage, int iconWidth, int iconHeight,
+                                         IconScaler scaler) {
+        return IconCache.get(javaFXImage, iconWidth, iconHeight, scaler, () -> IconDeduplicator.intern(
+                ImageUtils.rasterize(SwingFXUtils.fromFXImage(javaFXImage, null), iconWidth, iconHeight, scaler)));
     }
 
-    private static Image loadImageFromAWT(Image image) {
-        return image.getScaledInstance(iconScale.width(), iconScale.height(), Image.SCALE_SMOOTH);
+    private static Image loadImageFromAWT(Image image, IconScale scale, IconScaler scaler) {
+        return loadImageFromAWT(image, scale.width(), scale.height(), scaler);
     }
 
-    private static Image loadImageFromAWT(Image image, int iconWidth, int iconHeight) {
-        return image.getScaledInstance(iconWidth, iconHeight, Image.SCALE_SMOOTH);
+    static Image loadImageFromAWT(Image image, int iconWidth, int iconHeight, IconScaler scaler) {
+        return IconCache.get(image, iconWidth, iconHeight, scaler, () -> {
+            BufferedImage raster = ImageUtils.rasterize(image, iconWidth, iconHeight, scaler);
+            // an image that needs no scaling is the caller's own, which may still be drawn into, so the
+            // tray gets a copy that is only compared with, and shared as, an icon of the same pixels
+            return IconDeduplicator.intern(raster == image ? ImageUtils.copy(raster) : raster);
+        });
     }
 
-    private static Image loadDefaultIconImage() {
-        URL defaultIconImagePath = FXTrayIcon.class.getResource("FXIconRedWhite.png");
-        return loadImageFromURL(defaultIconImagePath);
+    private static Image loadImageFromAtlas(IconAtlas atlas, String iconName, int iconWidth, int iconHeight,
+                                            IconScaler scaler) {
+        // an icon that needs no scaling shares the sheet's pixels and is left as it is by intern()
+        return IconCache.get(atlas.region(iconName), iconWidth, iconHeight, scaler, () -> IconDeduplicator.intern(
+                ImageUtils.rasterize(atlas.getIcon(iconName), iconWidth, iconHeight, scaler)));
     }
 
-    private static boolean isWin() {
-        return System.getProperty("os.name")
-                .toLowerCase(Locale.ENGLISH)
-                .contains("windows");
+    private static LinkedList<Image> loadFramesFromAtlas(IconAtlas atlas, int iconWidth, int iconHeight,
+                                                         IconScaler scaler) {
+        LinkedList<Image> frames = new LinkedList<>();
+        for (String iconName : atlas.getNames()) {
+            frames.addLast(loadImageFromAtlas(atlas, iconName, iconWidth, iconHeight, scaler));
+        }
+        return frames;
     }
 
-    private boolean isMac() {
-        return System.getProperty("os.name")
-                .toLowerCase(Locale.ENGLISH)
-                .contains("mac");
+    private static AnimatedImageReader loadAnimatedImage(URL animatedImage, int iconWidth, int iconHeight,
+                                                         IconScaler scaler) {
+        try (InputStream is = animatedImage.openStream()) {
+            return AnimatedImageReader.read(is, iconWidth, iconHeight, scaler);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Unable to read the animated Image at the provided path: " + animatedImage, e);
+        }
     }
 
-    /**
-     * Adds the FXTrayIcon to the system tray.
-     * This will add the TrayIcon with the image initialized in the
+    private static AnimatedImageReader loadAnimatedImage(File animatedImage, int iconWidth, int iconHeight,
+                                                         IconScaler scaler) {
+        try (InputStream is = new FileInputStream(animatedImage)) {
+            return AnimatedImageReader.read(is, iconWidth, iconHeight, scaler);
+        }
+        catch (FileNotFoundException e) {
+            throw new IllegalStateException("Unable to load the animated Image at the provided path (File not found): " + animatedImage.getAbsolutePath(), e);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Unable to read the animated Image at the provided path (perhaps not a GIF or PNG file, or it is corrupt): " + animatedImage.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Loads a static icon at the icon size, or at several sizes with the
+     * tray slot size as the base size.
+     */
+    private static Image loadStaticIcon(MultiResolutionIcons.Loader loader, IconScale scale, boolean multiResolution) {
+        if (!multiResolution) {
+            return loader.load(scale.width(), scale.height());
+        }
+        Dimension slot = MultiResolutionIcons.getTraySlotSize(new Dimension(scale.width(), scale.height()));
+        return MultiResolutionIcons.of(loader, slot);
+    }
+
+    private Image loadStaticIcon(MultiResolutionIcons.Loader loader) {
+        return loadStaticIcon(loader, iconScale, multiResolution);
+    }
+
+    private static Image loadDefaultIconImage() {
+        URL defaultIconImagePath = FXTrayIcon.class.getResource("FXIconRedWhite.png");
+        return loadImageFromURL(defaultIconImagePath, DEFAULT_ICON_SCALE, DEFAULT_SCALER);
+    }
+
+    private static boolean isWin() {
+        return System.getProperty("os.name")
+                .toLowerCase(Locale.ENGLISH)
+                .contains("windows");
+    }
+
+    private boolean isMac() {
+        return System.getProperty("os.name")
+                .toLowerCase(Locale.ENGLISH)
+                .contains("mac");
+    }
+
+    /**
+     * Adds the FXTrayIcon to the system tray.
+     * This will add the TrayIcon with the image initialized in the
      * {@code FXTrayIcon}'s constructor. By default, an empty popup
      * menu is shown.
      * By default, {@code javafx.application.Platform.setImplicitExit(false)}
@@ -1013,6 +1588,10 @@ public class FXTrayIcon {
      */
     @API
     public void show() {
+        suspendAnimation(Animation.HIDDEN, false);
+        // the system tray holds on to its listeners, so it only knows this icon while it is shown
+        tray.removePropertyChangeListener("systemTray", trayListener);
+        tray.addPropertyChangeListener("systemTray", trayListener);
         SwingUtilities.invokeLater(() -> {
             try {
                 tray.add(this.trayIcon);
@@ -1104,9 +1683,11 @@ public class FXTrayIcon {
      */
     @API
     public void setOnAction(EventHandler<ActionEvent> e) {
-        if (this.trayIcon.getMouseListeners().length >= 1) {
-            this.trayIcon.removeMouseListener(
-                    this.trayIcon.getMouseListeners()[0]);
+        for (MouseListener listener : this.trayIcon.getMouseListeners()) {
+            if (listener != attentionListener) {
+                this.trayIcon.removeMouseListener(listener);
+                break;
+            }
         }
         this.trayIcon.addMouseListener(getPrimaryClickListener(e));
     }
@@ -1346,6 +1927,8 @@ public class FXTrayIcon {
      */
     @API
     public void hide() {
+        suspendAnimation(Animation.HIDDEN, true);
+        tray.removePropertyChangeListener("systemTray", trayListener);
         EventQueue.invokeLater(() -> {
             tray.remove(trayIcon);
             Platform.setImplicitExit(true);
@@ -1585,7 +2168,7 @@ public class FXTrayIcon {
      */
     @API
     public void setGraphic(javafx.scene.image.Image javaFXImage) {
-        setFinalGraphic(loadImageFromFX(javaFXImage));
+        setFinalGraphic(loadStaticIcon((w, h) -> loadImageFromFX(javaFXImage, w, h, iconScaler)));
     }
 
     /**
@@ -1601,7 +2184,7 @@ public class FXTrayIcon {
      */
     @API
     public void setGraphic(javafx.scene.image.Image javaFXImage, int iconWidth, int iconHeight) {
-        setFinalGraphic(loadImageFromFX(javaFXImage, iconWidth, iconHeight));
+        setFinalGraphic(loadImageFromFX(javaFXImage, iconWidth, iconHeight, iconScaler));
     }
 
     /**
@@ -1614,7 +2197,7 @@ public class FXTrayIcon {
      */
     @API
     public void setGraphic(File file) {
-        setFinalGraphic(loadImageFromFile(file));
+        setFinalGraphic(loadStaticIcon((w, h) -> loadImageFromFile(file, w, h, iconScaler)));
     }
 
     /**
@@ -1630,7 +2213,7 @@ public class FXTrayIcon {
      */
     @API
     public void setGraphic(File file, int iconWidth, int iconHeight) {
-        setFinalGraphic(loadImageFromFile(file, iconWidth, iconHeight));
+        setFinalGraphic(loadImageFromFile(file, iconWidth, iconHeight, iconScaler));
     }
 
     /**
@@ -1645,7 +2228,7 @@ public class FXTrayIcon {
      */
     @API
     public void setGraphic(File file, int iconWH) {
-        setFinalGraphic(loadImageFromFile(file, iconWH, iconWH));
+        setFinalGraphic(loadImageFromFile(file, iconWH, iconWH, iconScaler));
     }
 
     /**
@@ -1657,7 +2240,7 @@ public class FXTrayIcon {
      */
     @API
     public void setGraphic(URL imageURL) {
-        setFinalGraphic(loadImageFromURL(imageURL));
+        setFinalGraphic(loadStaticIcon((w, h) -> loadImageFromURL(imageURL, w, h, iconScaler)));
     }
 
     /**
@@ -1674,7 +2257,7 @@ public class FXTrayIcon {
      */
     @API
     public void setGraphic(URL imageURL, int iconWidth, int iconHeight) {
-        setFinalGraphic(loadImageFromURL(imageURL, iconWidth, iconHeight));
+        setFinalGraphic(loadImageFromURL(imageURL, iconWidth, iconHeight, iconScaler));
     }
 
     /**
@@ -1687,7 +2270,7 @@ public class FXTrayIcon {
      */
     @API
     public void setGraphic(Image image) {
-        setFinalGraphic(loadImageFromAWT(image));
+        setFinalGraphic(loadStaticIcon((w, h) -> loadImageFromAWT(image, w, h, iconScaler)));
     }
 
     /**
@@ -1700,12 +2283,156 @@ public class FXTrayIcon {
      */
     @API
     public void setGraphic(Image image, int iconWidth, int iconHeight) {
-        setFinalGraphic(loadImageFromAWT(image, iconWidth, iconHeight));
+        setFinalGraphic(loadImageFromAWT(image, iconWidth, iconHeight, iconScaler));
+    }
+
+    /**
+     * Provides a way to change the TrayIcon image at runtime
+     * by using one of the icons of an IconAtlas (sprite sheet).
+     * The image will be scaled to the correct size for the OS,
+     * unless it already has that size.
+     *
+     * @param atlas    an IconAtlas holding the icon
+     * @param iconName the name of the icon within the atlas
+     */
+    @API
+    public void setGraphic(IconAtlas atlas, String iconName) {
+        setFinalGraphic(loadStaticIcon((w, h) -> loadImageFromAtlas(atlas, iconName, w, h, iconScaler)));
+    }
+
+    /**
+     * Changes the TrayIcon image at runtime by fading from the current
+     * icon to the given JavaFX Image, instead of switching at once.
+     * The frames in between are blended once and kept, so fading between
+     * the same two icons again only plays them.
+     *
+     * @param javaFXImage javafx.scene.image.Image object
+     * @param fade        how long the fade takes, switches at once when zero
+     */
+    @API
+    public void setGraphic(javafx.scene.image.Image javaFXImage, javafx.util.Duration fade) {
+        setFinalGraphic(loadStaticIcon((w, h) -> loadImageFromFX(javaFXImage, w, h, iconScaler)), fade);
+    }
+
+    /**
+     * Changes the TrayIcon image at runtime by fading from the current
+     * icon to the image at the given File, instead of switching at once.
+     * The frames in between are blended once and kept, so fading between
+     * the same two icons again only plays them.
+     *
+     * @param file a java.io.File object
+     * @param fade how long the fade takes, switches at once when zero
+     */
+    @API
+    public void setGraphic(File file, javafx.util.Duration fade) {
+        setFinalGraphic(loadStaticIcon((w, h) -> loadImageFromFile(file, w, h, iconScaler)), fade);
+    }
+
+    /**
+     * Changes the TrayIcon image at runtime by fading from the current
+     * icon to the image at the given URL, instead of switching at once.
+     * The frames in between are blended once and kept, so fading between
+     * the same two icons again only plays them.
+     *
+     * @param imageURL a java.net.URL object
+     * @param fade     how long the fade takes, switches at once when zero
+     */
+    @API
+    public void setGraphic(URL imageURL, javafx.util.Duration fade) {
+        setFinalGraphic(loadStaticIcon((w, h) -> loadImageFromURL(imageURL, w, h, iconScaler)), fade);
+    }
+
+    /**
+     * Changes the TrayIcon image at runtime by fading from the current
+     * icon to the given AWT Image, instead of switching at once.
+     * The frames in between are blended once and kept, so fading between
+     * the same two icons again only plays them.
+     *
+     * @param image a java.awt.Image object
+     * @param fade  how long the fade takes, switches at once when zero
+     */
+    @API
+    public void setGraphic(Image image, javafx.util.Duration fade) {
+        setFinalGraphic(loadStaticIcon((w, h) -> loadImageFromAWT(image, w, h, iconScaler)), fade);
+    }
+
+    /**
+     * Changes the TrayIcon image at runtime by fading from the current
+     * icon to one of the icons of an IconAtlas, instead of switching at once.
+     * The frames in between are blended once and kept, so fading between
+     * the same two icons again only plays them.
+     *
+     * @param atlas    an IconAtlas holding the icon
+     * @param iconName the name of the icon within the atlas
+     * @param fade     how long the fade takes, switches at once when zero
+     */
+    @API
+    public void setGraphic(IconAtlas atlas, String iconName, javafx.util.Duration fade) {
+        setFinalGraphic(loadStaticIcon((w, h) -> loadImageFromAtlas(atlas, iconName, w, h, iconScaler)), fade);
+    }
+
+    /**
+     * Shows an IconBridge as the TrayIcon image at runtime. Whenever the
+     * bridge is rendered into, or changed() is called on it, the tray icon
+     * shows its new pixels, which are shared with the bridge instead of
+     * being read, scaled and cached like other icons. This suits icons
+     * that are drawn by the application and change every second or so.
+     *
+     * @param bridge an IconBridge, usually created at the icon size
+     */
+    @API
+    public void setGraphic(IconBridge bridge) {
+        setFinalGraphic(bridge.awtImage());
+        // an icon with the same pixels may be shown, but renders are only pushed while the bridge image is
+        trayImage.showLive(bridge.awtImage());
+        this.bridge = bridge;
+        bridge.addListener(bridgeListener);
+    }
+
+    private void showBridgeImage(BufferedImage image) {
+        // an animation or a fade may be showing instead, it returns to the bridge when done
+        trayImage.refresh(image);
     }
 
     private void setFinalGraphic(Image img) {
+        detachBridge();
+        stopCrossfade();
+        framePacer.cancel();
+        this.icon = img;
+        if (!trayImage.show(img)) {
+            skippedIconUpdates.incrementAndGet();
+        }
+    }
+
+    private void setFinalGraphic(Image img, javafx.util.Duration fade) {
+        Image from = this.trayIcon.getImage();
+        // A running animation owns the tray icon, so only the default icon is changed
+        if (fade == null || fade.toMillis() <= 0 || from == null || IconDeduplicator.samePixels(from, img)
+            || (animation != null && animation.isRunning())) {
+            setFinalGraphic(img);
+            return;
+        }
+        detachBridge();
+        stopCrossfade();
+        framePacer.cancel();
         this.icon = img;
-        this.trayIcon.setImage(img);
+        List<Image> frames = Crossfade.frames(from, img, Crossfade.frameCount(fade.toMillis()));
+        crossfade = new Animation(this, FrameSource.of(frames), new FrameSequence(Crossfade.FRAME_MS).setLoopCount(1));
+        crossfade.playFromStart();
+    }
+
+    private void detachBridge() {
+        if (bridge != null) {
+            bridge.removeListener(bridgeListener);
+            bridge = null;
+        }
+    }
+
+    private void stopCrossfade() {
+        if (crossfade != null) {
+            crossfade.stop();
+            crossfade = null;
+        }
     }
 
     /**
@@ -1814,11 +2541,10 @@ public class FXTrayIcon {
     @API
     public void newAnimation(LinkedList<javafx.scene.image.Image> imageList, int frameRateMS) {
         if(imageList != null && frameRateMS > 0){
-            LinkedList<Image> list = new LinkedList<>();
-            for (javafx.scene.image.Image fxImage : imageList) {
-                list.addLast(loadImageFromFX(fxImage, iconScale.width(), iconScale.height()));
-            }
-            animation = new Animation(this, list, frameRateMS);
+            LinkedList<Image> list = FrameLoader.loadFrames(imageList,
+                    fxImage -> loadImageFromFX(fxImage, iconScale.width(), iconScale.height(), frameScaler),
+                    frameLoadingExecutor, frameLoadingParallelism, null);
+            replaceAnimation(new Animation(this, list, frameRateMS));
         }
     }
 
@@ -1842,171 +2568,1098 @@ public class FXTrayIcon {
         if(imageFileList != null && frameRateMS > 0) {
             if (sortList)
                 imageFileList.sort(Comparator.comparing(File::getName));
-            LinkedList<Image> imageList = new LinkedList<>();
-            for (File file : imageFileList) {
-                imageList.addLast(loadImageFromFile(file, iconScale.width(), iconScale.height()));
-            }
-            animation = new Animation(this, imageList, frameRateMS);
+            LinkedList<Image> imageList = FrameLoader.loadFrames(imageFileList,
+                    file -> loadImageFromFile(file, iconScale.width(), iconScale.height(), frameScaler),
+                    frameLoadingExecutor, frameLoadingParallelism, frameLoadErrorHandler);
+            replaceAnimation(new Animation(this, imageList, frameRateMS));
         }
     }
 
     /**
-     * Starts the animated icon if you generated one either with the newAnimation() method ir in the Builder sentence..
+     * Use this method to add an animation to FXTrayIcon post instantiation, or use it to replace
+     * any current animation with a different one, using the icons of an IconAtlas (sprite sheet)
+     * as the frames in the order of the atlas. The sheet is only read once for all frames, and
+     * icons that already have the tray icon size share the pixels of the sheet.
+     *
+     * @param atlas       - IconAtlas holding the frames of the animation.
+     * @param frameRateMS - The framerate of the animation
      */
     @API
-    public void play() {
-        if (animation != null &&(isStopped() || isPaused())) {
-            animation.play();
+    public void newAnimation(IconAtlas atlas, int frameRateMS) {
+        if (atlas != null && frameRateMS > 0) {
+            replaceAnimation(new Animation(this, loadFramesFromAtlas(atlas, iconScale.width(), iconScale.height(), frameScaler), frameRateMS));
         }
     }
 
     /**
-     * Stops the animated icon if it is running.
+     * Use this method to add an animation to FXTrayIcon post instantiation, or use it to replace
+     * any current animation with a different one, from a List of JavaFX Image objects played as
+     * described by a FrameSequence. The FrameSequence sets how long each frame is shown, in which
+     * order the frames are played and how many times the animation repeats, without needing extra
+     * copies of frames that are held or played back and forth.
+     *
+     * @param imageList - List of JavaFX Image objects.
+     * @param sequence  - the FrameSequence describing how the frames are played.
      */
     @API
-    public void stop() {
-        if (animation != null && (isRunning() || isPaused())) {
-            animation.stop();
+    public void newAnimation(List<javafx.scene.image.Image> imageList, FrameSequence sequence) {
+        if (imageList != null && sequence != null) {
+            LinkedList<Image> list = FrameLoader.loadFrames(imageList,
+                    fxImage -> loadImageFromFX(fxImage, iconScale.width(), iconScale.height(), frameScaler),
+                    frameLoadingExecutor, frameLoadingParallelism, null);
+            replaceAnimation(new Animation(this, list, sequence));
         }
     }
 
     /**
-     * Stops the animated icon if it is running and resets the icon to the default that you used when starting the
-     * library or if you changed it with the setGraphic() method.
+     * Use this method to add an animation to FXTrayIcon post instantiation, or use it to replace
+     * any current animation with a different one, from JavaFX Image objects played as described
+     * by a FrameSequence.
+     *
+     * @param images   - JavaFX Image objects, one per frame.
+     * @param sequence - the FrameSequence describing how the frames are played.
      */
     @API
-    public void stopReset() {
-        if (animation != null) {
-            stop();
-            setGraphic(icon);
+    public void newAnimation(javafx.scene.image.Image[] images, FrameSequence sequence) {
+        if (images != null) {
+            newAnimation(Arrays.asList(images), sequence);
         }
     }
 
     /**
-     * resets the icon to the default that you used when starting the library or if you changed it with the setGraphic() method.
+     * Use this method to add an animation to FXTrayIcon post instantiation, or use it to replace
+     * any current animation with a different one, from a List of image files played as described
+     * by a FrameSequence.
+     *
+     * @param imageFileList - List of java.nio.File objects each file containing one frame.
+     * @param sequence      - the FrameSequence describing how the frames are played.
+     * @param sortList      - Set this to true if you want your file list sorted by filename before the images are created
      */
     @API
-    public void resetIcon() {
-        if (animation != null) {
-            if (!isRunning())
-                setGraphic(icon);
+    public void newAnimation(List<File> imageFileList, FrameSequence sequence, boolean sortList) {
+        if (imageFileList != null && sequence != null) {
+            List<File> files = new ArrayList<>(imageFileList);
+            if (sortList)
+                files.sort(Comparator.comparing(File::getName));
+            LinkedList<Image> imageList = FrameLoader.loadFrames(files,
+                    file -> loadImageFromFile(file, iconScale.width(), iconScale.height(), frameScaler),
+                    frameLoadingExecutor, frameLoadingParallelism, frameLoadErrorHandler);
+            replaceAnimation(new Animation(this, imageList, sequence));
         }
     }
 
     /**
-     * This is how theAnimation package private class animates the icon,
-     * and it needs to be protected because no one else should be using this
-     * means of changing icons because without this dedicated means
-     * of animating the icon, there were conflicts trying to set the default
-     * icon where those settings were overridden by the animator because
-     * they were using the same methods and overriding the icon object
-     * which is the designated default icon.
+     * Use this method to add an animation to FXTrayIcon post instantiation, or use it to replace
+     * any current animation with a different one, from image files in playback order, played as
+     * described by a FrameSequence.
      *
-     * @param frame the specific frame od the animation.
+     * @param imageFiles - java.nio.File objects, one per frame.
+     * @param sequence   - the FrameSequence describing how the frames are played.
      */
     @API
-    protected void setAnimationFrame(Image frame) {
-        if(frame != null && this.trayIcon != null) {
-            this.trayIcon.setImage(frame);
+    public void newAnimation(File[] imageFiles, FrameSequence sequence) {
+        if (imageFiles != null) {
+            newAnimation(Arrays.asList(imageFiles), sequence, false);
         }
     }
 
     /**
-     * Pauses the animated icon.
+     * Use this method to add an animation to FXTrayIcon post instantiation, or use it to replace
+     * any current animation with a different one, using the icons of an IconAtlas (sprite sheet)
+     * as the frames in the order of the atlas, played as described by a FrameSequence.
+     *
+     * @param atlas    - IconAtlas holding the frames of the animation.
+     * @param sequence - the FrameSequence describing how the frames are played.
      */
     @API
-    public void pause() {
-        if (animation != null) {
-            animation.pause();
+    public void newAnimation(IconAtlas atlas, FrameSequence sequence) {
+        if (atlas != null && sequence != null) {
+            replaceAnimation(new Animation(this, loadFramesFromAtlas(atlas, iconScale.width(), iconScale.height(), frameScaler), sequence));
         }
     }
-    
+
     /**
-     * Use this method to both pause and resume the animation as
-     * it will pause if the animation is running, and it will
-     * play the animation it if it is paused.
+     * Use this method to add an animation to FXTrayIcon post instantiation, or to replace any current
+     * animation, with frames that are drawn by a function of the frame index, for example a spinner
+     * or a pulsing dot. A frame is drawn on a background thread the first time it is needed, scaled
+     * to the icon size and kept for the next loop, so the animation costs nothing until it plays.
+     * Frames may be dropped when memory runs low, in which case they are drawn again.
+     *
+     * @param frameGenerator - draws the frame with the given index, from 0 to frameCount - 1.
+     * @param frameCount     - the number of frames of the animation.
+     * @param sequence       - the FrameSequence describing how the frames are played.
      */
     @API
-    public void pauseResume() {
-        if(animation != null) {
-            if (isRunning()) {
-                pause();
-            }
-            else if (isPaused()) {
-                play();
-            }
+    public void newAnimation(IntFunction<BufferedImage> frameGenerator, int frameCount, FrameSequence sequence) {
+        if (frameGenerator != null && sequence != null) {
+            replaceAnimation(new Animation(this, proceduralFrames(frameGenerator, frameCount), sequence));
         }
     }
 
     /**
-     * Starts the animated icon over from the first frame in the image list.
+     * Use this method to add an animation to FXTrayIcon post instantiation, or to replace any current
+     * animation, that shows one indexed-colour image with a different palette in each frame, for icons
+     * that pulse or rotate their colours. The image is scaled to the icon size once, and all frames
+     * share its pixels, so the animation needs one image plus a small palette per frame.
+     *
+     * @param paletteCycle - the image and the palettes of the frames.
+     * @param sequence     - the FrameSequence describing how the frames are played.
      */
     @API
-    public void playFromStart() {
-        if (animation != null) {
-            animation.playFromStart();
+    public void newAnimation(PaletteCycle paletteCycle, FrameSequence sequence) {
+        if (paletteCycle != null && sequence != null) {
+            replaceAnimation(new Animation(this, paletteCycle.frames(iconScale.width(), iconScale.height()), sequence));
         }
     }
 
     /**
-     * Lets you check if the icon animation is currently running.
+     * Use this method to add an animation to FXTrayIcon post instantiation, or to replace any current
+     * animation, whose frames are read from the image files while it plays, for long animations that
+     * would take a lot of memory if every frame was decoded up front. Only the frame being shown and
+     * the next two frames are held at any time, the upcoming frames are read and scaled in the background,
+     * on the frame loading Executor. A frame that is not ready when it is due is skipped, see
+     * getPrefetchMissCount(). Files that cannot be read are passed to the frame load error handler.
      *
-     * @return boolean
+     * @param frames   - the image files, one per frame, in the order they are played.
+     * @param sequence - the FrameSequence describing how the frames are played.
      */
     @API
-    public boolean isRunning() {
-        return animation == null ? false : animation.isRunning();
+    public void newStreamingAnimation(List<File> frames, FrameSequence sequence) {
+        if (frames != null && sequence != null) {
+            replaceAnimation(new Animation(this, StreamingFrames.of(frames, iconScale.width(), iconScale.height(),
+                    frameScaler, StreamingFrames.DEFAULT_WINDOW, backgroundExecutor(), frameLoadErrorHandler), sequence));
+        }
     }
 
     /**
-     * Lets you check if the icon animation is currently paused.
+     * Use this method to add an animation to FXTrayIcon post instantiation, or to replace any current
+     * animation, whose frames are read from the image files in a zip file while it plays, in the order
+     * of their names. See newStreamingAnimation(List, FrameSequence).
      *
-     * @return boolean
+     * @param zipFile  - a zip file holding one image file per frame.
+     * @param sequence - the FrameSequence describing how the frames are played.
      */
     @API
-    public boolean isPaused() {
-        return animation == null ? false : animation.isPaused();
+    public void newStreamingAnimation(File zipFile, FrameSequence sequence) {
+        if (zipFile != null && sequence != null) {
+            replaceAnimation(new Animation(this, StreamingFrames.ofZip(zipFile, iconScale.width(), iconScale.height(),
+                    frameScaler, StreamingFrames.DEFAULT_WINDOW, backgroundExecutor(), frameLoadErrorHandler), sequence));
+        }
     }
 
     /**
-     * Lets you check if the icon animation is currently stopped.
+     * Makes the given animation the current one. The animation it replaces is stopped, which also lets go
+     * of the files its frames are read from, instead of being left to play on where it can no longer be
+     * controlled.
+     */
+    private void replaceAnimation(Animation next) {
+        Animation previous = animation;
+        animation = next;
+        if (previous != null) {
+            previous.stop();
+        }
+    }
+
+    private Executor backgroundExecutor() {
+        return frameLoadingExecutor == null ? ForkJoinPool.commonPool() : frameLoadingExecutor;
+    }
+
+    private FrameSource proceduralFrames(IntFunction<BufferedImage> frameGenerator, int frameCount) {
+        return new ProceduralFrames(frameGenerator, frameCount, iconScale.width(), iconScale.height(),
+                frameScaler, backgroundExecutor());
+    }
+
+    /**
+     * Use this method to add an animation to FXTrayIcon post instantiation, or to replace any current
+     * animation, from a single animated GIF or APNG image. Each frame of the image is shown for its
+     * own delay and the image is repeated as often as it asks to be, as stored in the image, and
+     * frames are combined according to their disposal method.
+     * The frames are read one at a time and scaled to the icon size right away, so large images do
+     * not need a lot of memory.
+     * <p>
+     * To use an image on the classpath, pass in the URL returned by {@code getClass().getResource()}.
      *
-     * @return boolean
+     * @param animatedImage - URL of an animated GIF or APNG image.
      */
     @API
-    public boolean isStopped() {
-        return animation == null ? true : animation.isStopped();
+    public void newAnimation(URL animatedImage) {
+        if (animatedImage != null) {
+            AnimatedImageReader reader = loadAnimatedImage(animatedImage, iconScale.width(), iconScale.height(), frameScaler);
+            replaceAnimation(new Animation(this, reader.frames(), reader.sequence()));
+        }
     }
 
     /**
-     * This method gives you direct access to the animations timeline which you could use
-     * to adjust more advanced settings as well as see metrics that might be relevant to you.
+     * Use this method to add an animation to FXTrayIcon post instantiation, or to replace any current
+     * animation, from a single animated GIF or APNG file. Each frame of the image is shown for its
+     * own delay and the image is repeated as often as it asks to be, as stored in the image, and
+     * frames are combined according to their disposal method.
+     * The frames are read one at a time and scaled to the icon size right away, so large images do
+     * not need a lot of memory.
+     *
+     * @param animatedImage - an animated GIF or APNG file.
      */
     @API
-    public Timeline getAnimationTimeline() {
-        return animation == null ? null : animation.timeline();
+    public void newAnimation(File animatedImage) {
+        if (animatedImage != null) {
+            AnimatedImageReader reader = loadAnimatedImage(animatedImage, iconScale.width(), iconScale.height(), frameScaler);
+            replaceAnimation(new Animation(this, reader.frames(), reader.sequence()));
+        }
     }
-    
+
     /**
-     * Starting with the implementation of animations, FXTrayIcon will use default icons sizes based on
-     * which operating system you're running and this method lets you override those values.
+     * Registers a named animation clip, such as "idle", "syncing" or "error". The frames are loaded
+     * once, here, so switching to the clip later with transitionTo() does not load anything. A clip
+     * registered under a name that is already taken replaces the earlier one.
      *
-     * @param width  - icons width in pixels
-     * @param height - icons height in pixels
+     * @param name      - the name of the clip.
+     * @param imageList - List of JavaFX Image objects, one per frame.
+     * @param sequence  - the FrameSequence describing how the frames are played.
      */
     @API
-    public void setIconSize(int width, int height) {
-        iconScale = new IconScale(width, height);
+    public void registerClip(String name, List<javafx.scene.image.Image> imageList, FrameSequence sequence) {
+        LinkedList<Image> frames = FrameLoader.loadFrames(imageList,
+                fxImage -> loadImageFromFX(fxImage, iconScale.width(), iconScale.height(), frameScaler),
+                frameLoadingExecutor, frameLoadingParallelism, null);
+        clips.put(Objects.requireNonNull(name), new Animation(this, frames, sequence));
     }
 
     /**
-     * Starting with the implementation of animations, FXTrayIcon will use default icons sizes based on
-     * which operating system you're running and this method lets you override those values.
+     * Registers a named animation clip from image files, one per frame, which are loaded once, here.
      *
-     * @param sizeWH - int for the dimensions of the icon using a single value (W = H)
+     * @param name          - the name of the clip.
+     * @param imageFileList - List of java.nio.File objects each file containing one frame.
+     * @param sequence      - the FrameSequence describing how the frames are played.
+     * @param sortList      - Set this to true if you want your file list sorted by filename before the images are created
      */
     @API
-    public void setIconSize(int sizeWH) {
-        iconScale = new IconScale(sizeWH, sizeWH);
+    public void registerClip(String name, List<File> imageFileList, FrameSequence sequence, boolean sortList) {
+        List<File> files = new ArrayList<>(imageFileList);
+        if (sortList)
+            files.sort(Comparator.comparing(File::getName));
+        LinkedList<Image> frames = FrameLoader.loadFrames(files,
+                file -> loadImageFromFile(file, iconScale.width(), iconScale.height(), frameScaler),
+                frameLoadingExecutor, frameLoadingParallelism, frameLoadErrorHandler);
+        clips.put(Objects.requireNonNull(name), new Animation(this, frames, sequence));
+    }
+
+    /**
+     * Registers a named animation clip whose frames are the icons of an IconAtlas (sprite sheet).
+     *
+     * @param name     - the name of the clip.
+     * @param atlas    - IconAtlas holding the frames of the clip.
+     * @param sequence - the FrameSequence describing how the frames are played.
+     */
+    @API
+    public void registerClip(String name, IconAtlas atlas, FrameSequence sequence) {
+        clips.put(Objects.requireNonNull(name),
+                new Animation(this, loadFramesFromAtlas(atlas, iconScale.width(), iconScale.height(), frameScaler), sequence));
+    }
+
+    /**
+     * Registers a named animation clip from an animated GIF or APNG image, played with the delays
+     * and loop count stored in the image.
+     *
+     * @param name          - the name of the clip.
+     * @param animatedImage - URL of an animated GIF or APNG image.
+     */
+    @API
+    public void registerClip(String name, URL animatedImage) {
+        AnimatedImageReader reader = loadAnimatedImage(animatedImage, iconScale.width(), iconScale.height(), frameScaler);
+        clips.put(Objects.requireNonNull(name), new Animation(this, reader.frames(), reader.sequence()));
+    }
+
+    /**
+     * Registers a named animation clip from an animated GIF or APNG file, played with the delays
+     * and loop count stored in the image.
+     *
+     * @param name          - the name of the clip.
+     * @param animatedImage - an animated GIF or APNG file.
+     */
+    @API
+    public void registerClip(String name, File animatedImage) {
+        AnimatedImageReader reader = loadAnimatedImage(animatedImage, iconScale.width(), iconScale.height(), frameScaler);
+        clips.put(Objects.requireNonNull(name), new Animation(this, reader.frames(), reader.sequence()));
+    }
+
+    /**
+     * Registers a named animation clip whose frames are drawn by a function of the frame index.
+     * Frames are drawn the first time the clip needs them, see newAnimation(IntFunction, int, FrameSequence).
+     *
+     * @param name           - the name of the clip.
+     * @param frameGenerator - draws the frame with the given index, from 0 to frameCount - 1.
+     * @param frameCount     - the number of frames of the clip.
+     * @param sequence       - the FrameSequence describing how the frames are played.
+     */
+    @API
+    public void registerClip(String name, IntFunction<BufferedImage> frameGenerator, int frameCount, FrameSequence sequence) {
+        clips.put(Objects.requireNonNull(name),
+                new Animation(this, proceduralFrames(frameGenerator, frameCount), sequence));
+    }
+
+    /**
+     * Registers a named animation clip that shows one indexed-colour image with a different palette
+     * in each frame, see newAnimation(PaletteCycle, FrameSequence).
+     *
+     * @param name         - the name of the clip.
+     * @param paletteCycle - the image and the palettes of the frames.
+     * @param sequence     - the FrameSequence describing how the frames are played.
+     */
+    @API
+    public void registerClip(String name, PaletteCycle paletteCycle, FrameSequence sequence) {
+        clips.put(Objects.requireNonNull(name),
+                new Animation(this, paletteCycle.frames(iconScale.width(), iconScale.height()), sequence));
+    }
+
+    /**
+     * @return the names of the registered animation clips.
+     */
+    @API
+    public Set<String> getClipNames() {
+        return new TreeSet<>(clips.keySet());
+    }
+
+    /**
+     * @return the name of the clip that was last passed to transitionTo(), or null.
+     */
+    @API
+    public String getCurrentClip() {
+        return currentClip;
+    }
+
+    /**
+     * Switches the animated icon to a registered clip. A running animation finishes the frame it is
+     * showing, and the new clip starts right after it, from its first frame. Nothing is loaded, the
+     * clip was loaded when it was registered. If no animation is running, the clip starts right away.
+     *
+     * @param clipName - the name of a registered clip.
+     * @throws IllegalArgumentException if no clip with that name has been registered.
+     */
+    @API
+    public void transitionTo(String clipName) {
+        transitionTo(clipName, null);
+    }
+
+    /**
+     * Switches the animated icon to a registered clip, playing another clip once in between, for
+     * example a short animation that leads from "syncing" to "error". The transition clip starts
+     * once the frame that is showing is over, and the target clip starts when the transition clip
+     * has played once.
+     *
+     * @param clipName       - the name of a registered clip.
+     * @param transitionClip - the name of a registered clip to play once before it, or null.
+     * @throws IllegalArgumentException if no clip with one of the names has been registered.
+     */
+    @API
+    public void transitionTo(String clipName, String transitionClip) {
+        Animation target = getClip(clipName);
+        Animation transition = transitionClip == null ? null : getClip(transitionClip);
+        Animation current = animation;
+        if (current == target && transition == null && current.isRunning()) {
+            return;
+        }
+        currentClip = clipName;
+        Runnable start = transition == null ? () -> startClip(target) : () -> {
+            startClip(transition);
+            transition.handOff(() -> startClip(target), true);
+        };
+        if (current != null && current.isRunning() && !current.isSuspended()) {
+            current.handOff(start, false);
+        }
+        else {
+            if (current != null) {
+                current.stop();
+            }
+            start.run();
+        }
+    }
+
+    private Animation getClip(String clipName) {
+        Animation clip = clipName == null ? null : clips.get(clipName);
+        if (clip == null) {
+            throw new IllegalArgumentException("No animation clip named \"" + clipName + "\" has been registered.");
+        }
+        return clip;
+    }
+
+    private void startClip(Animation clip) {
+        clip.setDriver(animationDriver);
+        clip.setIdlePredicate(animationIdlePredicate);
+        clip.setSuspension(animationSuspension.get());
+        stopCrossfade();
+        animation = clip;
+        clip.playFromStart();
+    }
+
+    /**
+     * Animation frames are decoded and scaled on several threads at once. By default, the common
+     * ForkJoinPool is used, this method lets you supply your own Executor instead.
+     *
+     * @param executor - the Executor that animation frames are loaded on, or null for the default
+     */
+    @API
+    public void setFrameLoadingExecutor(Executor executor) {
+        this.frameLoadingExecutor = executor;
+    }
+
+    /**
+     * Sets how many animation frames may be decoded and scaled at the same time by newAnimation().
+     * The default is the number of available processors, and a value of 1 loads the frames one
+     * after another on the calling thread.
+     *
+     * @param parallelism - the maximum number of frames loaded at the same time
+     */
+    @API
+    public void setFrameLoadingParallelism(int parallelism) {
+        this.frameLoadingParallelism = parallelism;
+    }
+
+    /**
+     * Sets a handler that is called for every animation frame File that newAnimation() could not
+     * load. The remaining frames are still used for the animation. Without a handler, newAnimation()
+     * throws an IllegalStateException naming all files that failed once every frame has been attempted.
+     *
+     * @param handler - receives the File that failed and the reason it failed
+     */
+    @API
+    public void setOnFrameLoadError(BiConsumer<File, Exception> handler) {
+        this.frameLoadErrorHandler = handler;
+    }
+
+    /**
+     * Chooses what drives the animated icon. By default, every animation runs its own JavaFX Timeline.
+     * With AnimationDriver.SHARED_CLOCK, all animated icons of the application share one clock that
+     * only wakes up when a frame is due, handles every icon that is due at once and keeps icons with
+     * the same frame duration in step. AnimationDriver.BACKGROUND does the same on a low priority
+     * thread and hands frames straight to the AWT Event Dispatch Thread, so the JavaFX pulse is not
+     * kept busy for an application whose stage is hidden. A running animation carries on with the
+     * new driver.
+     *
+     * @param driver - the AnimationDriver for the current and future animations.
+     */
+    @API
+    public void setAnimationDriver(AnimationDriver driver) {
+        this.animationDriver = driver == null ? AnimationDriver.TIMELINE : driver;
+        if (animation != null) {
+            animation.setDriver(animationDriver);
+        }
+    }
+
+    /**
+     * Suspends the animated icon while the given predicate returns true, for example while the
+     * application has nothing to report. The predicate is asked before every frame, and about twice
+     * a second while the animation is suspended, so it should be cheap. Animations are also suspended
+     * while the icon is hidden and while the desktop has no system tray. A suspended animation still
+     * counts as running, and it carries on with the frame it would have reached by then.
+     *
+     * @param idlePredicate - returns true while the animation does not need to run, or null.
+     */
+    @API
+    public void setAnimationIdlePredicate(BooleanSupplier idlePredicate) {
+        this.animationIdlePredicate = idlePredicate;
+        if (animation != null) {
+            animation.setIdlePredicate(idlePredicate);
+        }
+    }
+
+    /**
+     * @return the number of animation frames that were not shown because the animation was suspended.
+     */
+    @API
+    public long getSuspendedFrameCount() {
+        return animation == null ? 0 : animation.getSavedTicks();
+    }
+
+    /**
+     * Renders icons that are set afterwards at several sizes at once, 16, 22, 24, 32 and 48 pixels and
+     * the size of a tray icon slot at common display scales, in a java.awt.image.MultiResolutionImage.
+     * Its base size is the size of a tray icon slot as the system tray reports it, so on a HiDPI panel
+     * the tray uses the variant made for its scale, instead of stretching a small icon, which looks
+     * blurry and is resampled on every repaint. Each size is read and scaled once and kept in the icon
+     * cache. Animation frames are not affected.
+     *
+     * @param multiResolution - true to render icons at several sizes.
+     */
+    @API
+    public void setMultiResolution(boolean multiResolution) {
+        this.multiResolution = multiResolution;
+    }
+
+    /**
+     * @return true if icons are rendered at several sizes, see setMultiResolution(boolean).
+     */
+    @API
+    public boolean isMultiResolution() {
+        return multiResolution;
+    }
+
+    /**
+     * Chooses how static icons that are set afterwards are scaled to the icon size. By default, icons
+     * are scaled with IconScaler.AREA_AVERAGING, which looks best but is slow when a large image is
+     * scaled down. Icons are cached per scaler, so switching scalers does not drop icons already read.
+     *
+     * @param scaler - the IconScaler for static icons.
+     */
+    @API
+    public void setIconScaler(IconScaler scaler) {
+        this.iconScaler = scaler == null ? DEFAULT_SCALER : scaler;
+    }
+
+    /**
+     * @return the IconScaler used for static icons
+     */
+    @API
+    public IconScaler getIconScaler() {
+        return iconScaler;
+    }
+
+    /**
+     * Chooses how the frames of animations and animation clips that are created afterwards are scaled
+     * to the icon size. IconScaler.PROGRESSIVE_BILINEAR loads frames drawn at a large size many times
+     * faster than the default IconScaler.AREA_AVERAGING, at a small cost in quality.
+     *
+     * @param scaler - the IconScaler for animation frames.
+     */
+    @API
+    public void setFrameScaler(IconScaler scaler) {
+        this.frameScaler = scaler == null ? DEFAULT_SCALER : scaler;
+    }
+
+    /**
+     * @return the IconScaler used for animation frames
+     */
+    @API
+    public IconScaler getFrameScaler() {
+        return frameScaler;
+    }
+
+    /**
+     * Keeps the frames of animations and animation clips that are created afterwards compressed in
+     * memory instead of as images, for applications that register many clips which mostly sit idle.
+     * Every few frames a whole frame is stored, the frames in between only store what changed since
+     * the frame before them, and all of it is deflated. A frame is decoded when it is shown, and only
+     * the last few decoded frames are kept. Frames that are read while the animation plays, or drawn
+     * by a function, are not affected.
+     *
+     * @param compressFrames - true to compress the frames of animations created from now on.
+     */
+    @API
+    public void setCompressFrames(boolean compressFrames) {
+        this.compressFrames = compressFrames;
+    }
+
+    /**
+     * Lets you check how much memory compressing frames saves, see setCompressFrames(boolean).
+     *
+     * @return the size of the frames of the animation and all clips as images, divided by the size
+     * they are stored in, 1 if none of them are compressed.
+     */
+    @API
+    public double getFrameCompressionRatio() {
+        long raw = 0;
+        long stored = 0;
+        Set<Animation> animations = new HashSet<>(clips.values());
+        if (animation != null) {
+            animations.add(animation);
+        }
+        for (Animation each : animations) {
+            if (each.getFrames() instanceof CompressedFrames) {
+                CompressedFrames frames = (CompressedFrames) each.getFrames();
+                raw += frames.getRawBytes();
+                stored += frames.getStoredBytes();
+            }
+        }
+        return stored == 0 ? 1 : (double) raw / stored;
+    }
+
+    /**
+     * @return the frames of an animation, compressed if that was asked for
+     */
+    FrameSource frameSource(List<Image> frames) {
+        return compressFrames && !frames.isEmpty() ? new CompressedFrames(frames) : FrameSource.of(frames);
+    }
+
+    /**
+     * Lets you check how often a streamed animation, see newStreamingAnimation(), had to skip a frame
+     * because it was not read from disk in time.
+     *
+     * @return the number of frames that were not ready when they were due, 0 for other animations.
+     */
+    @API
+    public long getPrefetchMissCount() {
+        Animation current = animation;
+        return current != null && current.getFrames() instanceof StreamingFrames
+                ? ((StreamingFrames) current.getFrames()).getMissCount() : 0;
+    }
+
+    private void suspendAnimation(int reason, boolean suspend) {
+        if (suspend) {
+            animationSuspension.updateAndGet(reasons -> reasons | reason);
+        }
+        else {
+            animationSuspension.updateAndGet(reasons -> reasons & ~reason);
+        }
+        for (Animation running : new Animation[]{animation, crossfade, attention}) {
+            if (running != null) {
+                if (suspend) {
+                    running.suspend(reason);
+                }
+                else {
+                    running.resume(reason);
+                }
+            }
+        }
+    }
+
+    int getAnimationSuspension() {
+        return animationSuspension.get();
+    }
+
+    BooleanSupplier getAnimationIdlePredicate() {
+        return animationIdlePredicate;
+    }
+
+    /**
+     * @return the AnimationDriver used for animations of this FXTrayIcon
+     */
+    @API
+    public AnimationDriver getAnimationDriver() {
+        return animationDriver;
+    }
+
+    /**
+     * Starts the animated icon if you generated one either with the newAnimation() method ir in the Builder sentence..
+     * This may be called from any thread, the animation is started on the thread that drives it. When play(),
+     * pause() and stop() are called in quick succession, only the last of them takes effect.
+     */
+    @API
+    public void play() {
+        if (animation != null &&(isStopped() || isPaused())) {
+            stopCrossfade();
+            animation.play();
+        }
+    }
+
+    /**
+     * Stops the animated icon if it is running.
+     */
+    @API
+    public void stop() {
+        if (animation != null && (isRunning() || isPaused())) {
+            animation.stop();
+        }
+    }
+
+    /**
+     * Stops the animated icon if it is running and resets the icon to the default that you used when starting the
+     * library or if you changed it with the setGraphic() method. Like stop(), this may be called from any thread.
+     */
+    @API
+    public void stopReset() {
+        Animation current = animation;
+        if (current != null) {
+            current.stop(this::showIconAfterFrames);
+        }
+    }
+
+    /**
+     * Hands the icon to the tray after the frames that are already on their way to it, called on the
+     * driver thread of an animation that has just stopped.
+     */
+    private void showIconAfterFrames() {
+        // a frame still waiting is not counted as dropped, it was never meant to be seen
+        framePacer.cancel();
+        framePacer.push(icon);
+    }
+
+    /**
+     * Blinks the icon to draw the user's attention, switching between the current icon and a brighter
+     * version of it, until the user clicks the tray icon or opens its menu, or cancelAttention() is called.
+     * A running animation is paused meanwhile and carries on afterwards. The brighter icon is made once
+     * and kept, so asking for attention again with the same icon does not make it again.
+     *
+     * @param blinkMS - how long each of the two icons is shown, in milliseconds.
+     */
+    @API
+    public void requestAttention(int blinkMS) {
+        requestAttention(blinkMS, false);
+    }
+
+    /**
+     * Blinks the icon to draw the user's attention until the user clicks the tray icon or opens its menu,
+     * or cancelAttention() is called. See requestAttention(int).
+     *
+     * @param blinkMS - how long each of the two icons is shown, in milliseconds.
+     * @param blank   - true to blink between the icon and an empty icon, instead of a brighter icon.
+     */
+    @API
+    public void requestAttention(int blinkMS, boolean blank) {
+        if (blinkMS <= 0) {
+            throw new IllegalArgumentException("The blink duration must be greater than 0.");
+        }
+        if (icon == null) {
+            return;
+        }
+        cancelAttention();
+        stopCrossfade();
+        if (animation != null && animation.isRunning()) {
+            animation.pause();
+            resumeAfterAttention = true;
+        }
+        if (attention == null || attentionIcon != icon || attentionBlank != blank
+            || attentionBlinkMS != blinkMS) {
+            attention = new Animation(this, attentionFrames(icon, blank), new FrameSequence(blinkMS));
+            attentionIcon = icon;
+            attentionBlank = blank;
+            attentionBlinkMS = blinkMS;
+        }
+        attention.setDriver(animationDriver);
+        attention.setIdlePredicate(animationIdlePredicate);
+        attention.setSuspension(animationSuspension.get());
+        attention.playFromStart();
+        this.trayIcon.addMouseListener(attentionListener);
+    }
+
+    /**
+     * @return the two icons that requestAttention() blinks between, the icon first.
+     */
+    static FrameSource attentionFrames(Image icon, boolean blank) {
+        Image highlight = blank
+                ? new BufferedImage(icon.getWidth(null), icon.getHeight(null), BufferedImage.TYPE_INT_ARGB_PRE)
+                : ImageUtils.highlighted(icon);
+        return FrameSource.of(Arrays.asList(icon, highlight));
+    }
+
+    /**
+     * Stops blinking the icon, see requestAttention(int), shows the icon again and carries on with an
+     * animation that was paused for it.
+     */
+    @API
+    public void cancelAttention() {
+        this.trayIcon.removeMouseListener(attentionListener);
+        if (attention == null || attention.isStopped()) {
+            return;
+        }
+        Animation paused = resumeAfterAttention ? animation : null;
+        resumeAfterAttention = false;
+        attention.stop(() -> {
+            showIconAfterFrames();
+            if (paused != null) {
+                paused.play();
+            }
+        });
+    }
+
+    /**
+     * @return true while the icon blinks to draw the user's attention.
+     */
+    @API
+    public boolean isRequestingAttention() {
+        return attention != null && !attention.isStopped();
+    }
+
+    /**
+     * resets the icon to the default that you used when starting the library or if you changed it with the setGraphic() method.
+     */
+    @API
+    public void resetIcon() {
+        if (animation != null) {
+            if (!isRunning())
+                setGraphic(icon);
+        }
+    }
+
+    /**
+     * This is how theAnimation package private class animates the icon,
+     * and it needs to be protected because no one else should be using this
+     * means of changing icons because without this dedicated means
+     * of animating the icon, there were conflicts trying to set the default
+     * icon where those settings were overridden by the animator because
+     * they were using the same methods and overriding the icon object
+     * which is the designated default icon.
+     *
+     * @param frame the specific frame od the animation.
+     */
+    @API
+    protected void setAnimationFrame(Image frame) {
+        if(frame != null && this.trayIcon != null) {
+            framePacer.push(frame);
+        }
+    }
+
+    private void showAnimationFrame(Image frame) {
+        // identical frames share one image, so comparing them is enough
+        if (frame != this.trayIcon.getImage()) {
+            this.trayIcon.setImage(frame);
+        }
+        else {
+            skippedIconUpdates.incrementAndGet();
+        }
+    }
+
+    /**
+     * Lets you check how often FXTrayIcon left the tray icon alone because the new icon or animation
+     * frame had exactly the same pixels as the one already shown. Icons and frames that are read by
+     * FXTrayIcon are also shared when their pixels are the same, so an animation with repeated frames,
+     * or switching back and forth between equal icons, keeps each picture in memory once.
+     *
+     * @return the number of icon updates that were skipped.
+     */
+    @API
+    public long getSkippedIconUpdateCount() {
+        return skippedIconUpdates.get();
+    }
+
+    /**
+     * Animation frames reach the tray icon on the AWT Event Dispatch Thread, one at a time. When the
+     * tray cannot keep up with an animation, for example on a busy machine or with a slow tray host,
+     * frames that are still waiting to be shown are skipped in favour of the newest one. This returns
+     * the number of frames per second that currently reach the tray icon.
+     *
+     * @return the effective frame rate of the animation, 0 before any frame was shown.
+     */
+    @API
+    public double getEffectiveFrameRate() {
+        return framePacer.getEffectiveFrameRate();
+    }
+
+    /**
+     * @return the average time in milliseconds between an animation frame being handed over and the tray icon showing it.
+     */
+    @API
+    public double getFrameLatency() {
+        return framePacer.getAverageLatencyMillis();
+    }
+
+    /**
+     * @return the number of animation frames that were skipped because the tray icon could not keep up.
+     */
+    @API
+    public long getDroppedFrameCount() {
+        return framePacer.getDroppedFrameCount();
+    }
+
+    /**
+     * Limits the frame rate of the animations of every FXTrayIcon, for example to save power while
+     * running on battery. Animations keep their speed, but frames that would come sooner than the
+     * limit allows are not shown.
+     *
+     * @param framesPerSecond - the highest frame rate for all animations, 0 for no limit.
+     */
+    @API
+    public static void setMaximumFrameRate(double framesPerSecond) {
+        Animation.setMaximumFrameRate(framesPerSecond);
+    }
+
+    /**
+     * @return the highest frame rate for all animations, 0 if there is no limit.
+     */
+    @API
+    public static double getMaximumFrameRate() {
+        return Animation.getMaximumFrameRate();
+    }
+
+    /**
+     * Pauses the animated icon. Like play() and stop(), this may be called from any thread.
+     */
+    @API
+    public void pause() {
+        if (animation != null) {
+            animation.pause();
+        }
+    }
+    
+    /**
+     * Use this method to both pause and resume the animation as
+     * it will pause if the animation is running, and it will
+     * play the animation it if it is paused.
+     */
+    @API
+    public void pauseResume() {
+        if(animation != null) {
+            if (isRunning()) {
+                pause();
+            }
+            else if (isPaused()) {
+                play();
+            }
+        }
+    }
+
+    /**
+     * Starts the animated icon over from the first frame in the image list.
+     */
+    @API
+    public void playFromStart() {
+        if (animation != null) {
+            stopCrossfade();
+            animation.playFromStart();
+        }
+    }
+
+    /**
+     * Lets you check if the icon animation is currently running. This never blocks and reflects
+     * a call to play() or stop() right away, even from another thread.
+     *
+     * @return boolean
+     */
+    @API
+    public boolean isRunning() {
+        return animation == null ? false : animation.isRunning();
+    }
+
+    /**
+     * Lets you check if the icon animation is currently paused.
+     *
+     * @return boolean
+     */
+    @API
+    public boolean isPaused() {
+        return animation == null ? false : animation.isPaused();
+    }
+
+    /**
+     * Lets you check if the icon animation is currently stopped.
+     *
+     * @return boolean
+     */
+    @API
+    public boolean isStopped() {
+        return animation == null ? true : animation.isStopped();
+    }
+
+    /**
+     * This method gives you direct access to the animations timeline which you could use
+     * to adjust more advanced settings as well as see metrics that might be relevant to you.
+     * Only animations that use AnimationDriver.TIMELINE have a timeline, for any other driver
+     * this returns null. Use play(), pause() and stop() rather than the timeline's own methods,
+     * so that isRunning(), isPaused() and isStopped() keep track of the animation.
+     */
+    @API
+    public Timeline getAnimationTimeline() {
+        return animation == null || animation.getDriver() != AnimationDriver.TIMELINE ? null : animation.timeline();
+    }
+    
+    /**
+     * Starting with the implementation of animations, FXTrayIcon will use default icons sizes based on
+     * which operating system you're running and this method lets you override those values.
+     * The size only applies to this FXTrayIcon, other instances keep their own size.
+     *
+     * @param width  - icons width in pixels
+     * @param height - icons height in pixels
+     */
+    @API
+    public void setIconSize(int width, int height) {
+        iconScale = new IconScale(width, height);
+    }
+
+    /**
+     * Starting with the implementation of animations, FXTrayIcon will use default icons sizes based on
+     * which operating system you're running and this method lets you override those values.
+     * The size only applies to this FXTrayIcon, other instances keep their own size.
+     *
+     * @param sizeWH - int for the dimensions of the icon using a single value (W = H)
+     */
+    @API
+    public void setIconSize(int sizeWH) {
+        iconScale = new IconScale(sizeWH, sizeWH);
+    }
+
+    /**
+     * Reads and scales the given icons ahead of time, so that a later call to
+     * setGraphic() with the same URL only has to swap the already prepared image.
+     * Use this at startup for status icons that you switch between often.
+     * Icons are prepared at the current icon size, or at every size when
+     * multi-resolution icons are on, so call setIconSize() or setMultiResolution()
+     * first if you are not using the defaults.
+     *
+     * @param iconImagePaths one or more java.net.URL objects
+     */
+    @API
+    public void preload(URL... iconImagePaths) {
+        for (URL iconImagePath : iconImagePaths) {
+            loadStaticIcon((w, h) -> loadImageFromURL(iconImagePath, w, h, iconScaler));
+        }
+    }
+
+    /**
+     * Reads and scales the given icon files ahead of time, so that a later call to
+     * setGraphic() with the same File only has to swap the already prepared image.
+     * Icons are prepared at the current icon size, or at every size when
+     * multi-resolution icons are on, so call setIconSize() or setMultiResolution()
+     * first if you are not using the defaults.
+     *
+     * @param iconFiles one or more java.io.File objects
+     */
+    @API
+    public void preload(File... iconFiles) {
+        for (File iconFile : iconFiles) {
+            loadStaticIcon((w, h) -> loadImageFromFile(iconFile, w, h, iconScaler));
+        }
+    }
+
+    /**
+     * Adds a decoder for icon images, which is asked before the decoders found through
+     * java.util.ServiceLoader, the built-in PNG decoder and ImageIO, see IconDecoder.
+     * Decoders registered later are asked first. Icons that are already in the icon
+     * cache are not read again.
+     *
+     * @param decoder the IconDecoder to add
+     */
+    @API
+    public static void registerIconDecoder(IconDecoder decoder) {
+        IconDecoders.register(decoder);
+    }
+
+    /**
+     * Removes a decoder added with registerIconDecoder(IconDecoder).
+     *
+     * @param decoder the IconDecoder to remove
+     */
+    @API
+    public static void unregisterIconDecoder(IconDecoder decoder) {
+        IconDecoders.unregister(decoder);
+    }
+
+    /**
+     * Icons read by FXTrayIcon are kept in a cache shared by every instance, so that
+     * the same icon at the same size is only decoded once. This method sets how many
+     * icons the cache may hold before the least recently used ones are dropped.
+     * The default is 64, and a value of 0 turns the cache off.
+     *
+     * @param maximumSize the maximum number of cached icons
+     */
+    @API
+    public static void setIconCacheSize(int maximumSize) {
+        IconCache.setMaximumSize(maximumSize);
+    }
+
+    /**
+     * Empties the shared icon cache and resets its hit and miss counters.
+     */
+    @API
+    public static void clearIconCache() {
+        IconCache.clear();
+    }
+
+    /**
+     * Lets you check how many icon requests were served from the shared icon cache.
+     *
+     * @return number of cache hits since the cache was created or last cleared
+     */
+    @API
+    public static long getIconCacheHitCount() {
+        return IconCache.getHitCount();
+    }
+
+    /**
+     * Lets you check how many icon requests had to read and scale the icon because
+     * it was not in the shared icon cache.
+     *
+     * @return number of cache misses since the cache was created or last cleared
+     */
+    @API
+    public static long getIconCacheMissCount() {
+        return IconCache.getMissCount();
     }
 }
@@ -0,0 +1,145 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Decodes and scales the frames of an animation, fanning the work out over
+ * an executor while keeping the frames in the order they were supplied.
+ */
+class FrameLoader {
+
+    private FrameLoader() {
+    }
+
+    /**
+     * Loads every source with the given loader. Up to {@code parallelism}
+     * workers are started on the executor, each of them repeatedly claiming
+     * the next unclaimed frame, and every result is stored at the index of
+     * its source so the returned list has the original order.
+     * <p>
+     * The calling thread is one of the workers, and it only waits for
+     * frames that other workers have already claimed. Workers the executor
+     * has not started by then find nothing left to do. Loading therefore
+     * finishes even when the executor is busy or single-threaded, or when
+     * it is called from one of the executor's own threads.
+     * <p>
+     * A frame that fails to load does not stop the others. Once all frames
+     * have been attempted, each failure is passed to {@code onError} and the
+     * failed frames are left out of the result. Without an error handler an
+     * {@code IllegalStateException} naming every failed source is thrown.
+     *
+     * @param sources     the frames to load, in playback order
+     * @param loader      reads and scales a single frame
+     * @param executor    runs the workers, the common ForkJoinPool when null
+     * @param parallelism the maximum number of frames loaded at the same time
+     * @param onError     receives each failed source and its exception, may be null
+     * @return the loaded frames in the order of {@code sources}
+     */
+    static <T> LinkedList<Image> loadFrames(List<T> sources, Function<T, Image> loader,
+                                            Executor executor, int parallelism,
+                                            BiConsumer<T, Exception> onError) {
+        final int count = sources.size();
+        final Image[] frames = new Image[count];
+        final Exception[] errors = new Exception[count];
+        final AtomicInteger next = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(count);
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                try {
+                    frames[i] = loader.apply(sources.get(i));
+                }
+                catch (RuntimeException e) {
+                    errors[i] = e;
+                }
+                finally {
+                    done.countDown();
+                }
+            }
+        };
+
+        int workers = Math.min(Math.max(parallelism, 1), count);
+        if (workers <= 1) {
+            worker.run();
+        }
+        else {
+            Executor pool = executor == null ? ForkJoinPool.commonPool() : executor;
+            for (int w = 1; w < workers; w++) {
+                pool.execute(worker);
+            }
+            // the calling thread works too instead of just waiting
+            worker.run();
+            awaitUninterruptibly(done);
+        }
+
+        LinkedList<Image> result = new LinkedList<>();
+        List<Exception> unhandled = new ArrayList<>();
+        StringJoiner failed = new StringJoiner(", ");
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == null) {
+                result.addLast(frames[i]);
+            }
+            else if (onError != null) {
+                onError.accept(sources.get(i), errors[i]);
+            }
+            else {
+                unhandled.add(errors[i]);
+                failed.add(String.valueOf(sources.get(i)));
+            }
+        }
+        if (!unhandled.isEmpty()) {
+            IllegalStateException e = new IllegalStateException(
+                    "Unable to load the following animation frames: " + failed, unhandled.get(0));
+            unhandled.stream().skip(1).forEach(e::addSuppressed);
+            throw e;
+        }
+        return result;
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
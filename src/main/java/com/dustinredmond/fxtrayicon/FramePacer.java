@@ -0,0 +1,135 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import java.awt.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Hands animation frames to the tray icon on the AWT Event Dispatch
+ * Thread, never letting more than one frame wait there at a time. When
+ * the tray host repaints slower than frames arrive, a frame that comes in
+ * while the previous one is still waiting replaces it, so the icon skips
+ * ahead to the newest frame instead of falling further and further behind.
+ * <p>
+ * The time from handing over a frame until the tray icon has taken it is
+ * measured for every frame, along with the rate at which frames actually
+ * reach the tray icon.
+ */
+final class FramePacer {
+
+    /**
+     * Weight of the newest measurement in the running averages.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    private final Consumer<Image> sink;
+    private final AtomicReference<Image> waiting = new AtomicReference<>();
+    private final AtomicBoolean posted = new AtomicBoolean();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final Runnable deliver = this::deliver;
+    private volatile long waitingSince;
+    private volatile long lastDelivery;
+    private volatile double averageLatencyNanos;
+    private volatile double averageIntervalNanos;
+
+    /**
+     * @param sink shows a frame in the tray icon, called on the Event Dispatch Thread
+     */
+    FramePacer(Consumer<Image> sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Queues a frame for the tray icon, replacing a frame that is still waiting.
+     */
+    void push(Image frame) {
+        if (waiting.getAndSet(frame) != null) {
+            droppedFrames.incrementAndGet();
+            return;
+        }
+        waitingSince = System.nanoTime();
+        if (posted.compareAndSet(false, true)) {
+            EventQueue.invokeLater(deliver);
+        }
+    }
+
+    /**
+     * Forgets a frame that has not been shown yet, so that it does not
+     * overwrite an icon that is set directly.
+     */
+    void cancel() {
+        waiting.set(null);
+    }
+
+    private void deliver() {
+        posted.set(false);
+        Image frame = waiting.getAndSet(null);
+        if (frame == null) {
+            return;
+        }
+        long start = waitingSince;
+        sink.accept(frame);
+        long now = System.nanoTime();
+        averageLatencyNanos = average(averageLatencyNanos, now - start);
+        if (lastDelivery != 0) {
+            averageIntervalNanos = average(averageIntervalNanos, now - lastDelivery);
+        }
+        lastDelivery = now;
+    }
+
+    private static double average(double average, long sample) {
+        return average == 0 ? sample : average + SMOOTHING * (sample - average);
+    }
+
+    /**
+     * @return the average time between handing over a frame and the tray icon showing it
+     */
+    double getAverageLatencyMillis() {
+        return averageLatencyNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return the number of frames that were replaced by a newer one before being shown
+     */
+    long getDroppedFrameCount() {
+        return droppedFrames.get();
+    }
+
+    /**
+     * @return the number of frames per second that currently reach the tray icon
+     */
+    double getEffectiveFrameRate() {
+        double interval = averageIntervalNanos;
+        if (interval == 0) {
+            return 0;
+        }
+        // once frames stop coming, the rate falls off instead of staying at its last value
+        interval = Math.max(interval, System.nanoTime() - lastDelivery);
+        return 1_000_000_000.0 / interval;
+    }
+}
@@ -0,0 +1,219 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.dustinredmond.fxtrayicon.annotations.API;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Describes how the frames of an animated icon are played: how long each
+ * frame is shown, in which direction the frames are played and how many
+ * times the animation repeats.
+ * <p>
+ * A frame that should be held longer is given a longer duration instead
+ * of being repeated in the frame list, and reverse or ping-pong playback
+ * re-uses the same frames, so neither needs any extra images.
+ * <pre>{@code
+ * FrameSequence blink = new FrameSequence(100)
+ *         .setFrameDuration(0, 1500)   // hold the first frame
+ *         .setPlayback(FrameSequence.Playback.PING_PONG)
+ *         .setLoopCount(3);
+ * trayIcon.newAnimation(frames, blink);
+ * }</pre>
+ */
+public class FrameSequence {
+
+    /**
+     * Loop count that repeats the animation until it is stopped.
+     */
+    public static final int INDEFINITE = -1;
+
+    /**
+     * The order in which the frames are played.
+     */
+    public enum Playback {
+        /**
+         * First to last frame, then start over.
+         */
+        FORWARD,
+        /**
+         * Last to first frame, then start over.
+         */
+        REVERSE,
+        /**
+         * First to last frame and back again, without showing the
+         * first and last frame twice in a row.
+         */
+        PING_PONG
+    }
+
+    private final int frameDurationMS;
+    private final Map<Integer, Integer> frameDurations = new HashMap<>();
+    private Playback playback = Playback.FORWARD;
+    private int loopCount = INDEFINITE;
+
+    /**
+     * Creates a FrameSequence that shows every frame for the same time,
+     * plays forward and repeats indefinitely.
+     *
+     * @param frameDurationMS how long each frame is shown, in milliseconds
+     */
+    @API
+    public FrameSequence(int frameDurationMS) {
+        this.frameDurationMS = requirePositive(frameDurationMS);
+    }
+
+    /**
+     * Sets how long one frame is shown, overriding the duration that
+     * was passed to the constructor for this frame.
+     *
+     * @param frameIndex the index of the frame in the frame list
+     * @param durationMS how long the frame is shown, in milliseconds
+     * @return this FrameSequence
+     */
+    @API
+    public FrameSequence setFrameDuration(int frameIndex, int durationMS) {
+        if (frameIndex < 0) {
+            throw new IllegalArgumentException("Frame index must not be negative.");
+        }
+        frameDurations.put(frameIndex, requirePositive(durationMS));
+        return this;
+    }
+
+    /**
+     * Sets how long each frame is shown, starting with the first frame.
+     *
+     * @param durationsMS one duration per frame, in milliseconds
+     * @return this FrameSequence
+     */
+    @API
+    public FrameSequence setFrameDurations(int... durationsMS) {
+        for (int i = 0; i < durationsMS.length; i++) {
+            setFrameDuration(i, durationsMS[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the order in which the frames are played, FORWARD by default.
+     *
+     * @param playback FORWARD, REVERSE or PING_PONG
+     * @return this FrameSequence
+     */
+    @API
+    public FrameSequence setPlayback(Playback playback) {
+        this.playback = playback == null ? Playback.FORWARD : playback;
+        return this;
+    }
+
+    /**
+     * Sets how many times the animation is played before it stops by itself.
+     * A ping-pong animation going there and back again counts as one loop.
+     *
+     * @param loopCount the number of times the animation is played, or INDEFINITE
+     * @return this FrameSequence
+     */
+    @API
+    public FrameSequence setLoopCount(int loopCount) {
+        if (loopCount < 1 && loopCount != INDEFINITE) {
+            throw new IllegalArgumentException("Loop count must be at least 1, or INDEFINITE.");
+        }
+        this.loopCount = loopCount;
+        return this;
+    }
+
+    /**
+     * @return the duration used for frames without a duration of their own
+     */
+    @API
+    public int getFrameDuration() {
+        return frameDurationMS;
+    }
+
+    /**
+     * @param frameIndex the index of a frame in the frame list
+     * @return how long the frame is shown, in milliseconds
+     */
+    @API
+    public int getFrameDuration(int frameIndex) {
+        return frameDurations.getOrDefault(frameIndex, frameDurationMS);
+    }
+
+    /**
+     * @return the order in which the frames are played
+     */
+    @API
+    public Playback getPlayback() {
+        return playback;
+    }
+
+    /**
+     * @return the number of times the animation is played, or INDEFINITE
+     */
+    @API
+    public int getLoopCount() {
+        return loopCount;
+    }
+
+    /**
+     * Lists the frame shown at each step of one loop of the animation.
+     * @param frameCount the number of frames of the animation
+     * @return frame indices, one per step
+     */
+    int[] steps(int frameCount) {
+        if (playback == Playback.PING_PONG && frameCount > 2) {
+            // 0 1 2 3 2 1, then the next loop starts at 0 again
+            int[] steps = new int[frameCount * 2 - 2];
+            for (int i = 0; i < steps.length; i++) {
+                steps[i] = i < frameCount ? i : steps.length - i;
+            }
+            return steps;
+        }
+        int[] steps = new int[frameCount];
+        for (int i = 0; i < frameCount; i++) {
+            steps[i] = playback == Playback.REVERSE ? frameCount - 1 - i : i;
+        }
+        return steps;
+    }
+
+    /**
+     * Creates a sequence from the frame delays stored in an animated image.
+     * @param delaysMS the delay of each frame
+     * @param plays the number of times the image asks to be played, 0 for forever
+     */
+    static FrameSequence of(int[] delaysMS, int plays) {
+        FrameSequence sequence = new FrameSequence(delaysMS.length == 0 ? 100 : delaysMS[0]);
+        sequence.setFrameDurations(delaysMS);
+        sequence.setLoopCount(plays <= 0 ? INDEFINITE : plays);
+        return sequence;
+    }
+
+    private static int requirePositive(int durationMS) {
+        if (durationMS <= 0) {
+            throw new IllegalArgumentException("Frame durations must be greater than 0.");
+        }
+        return durationMS;
+    }
+}
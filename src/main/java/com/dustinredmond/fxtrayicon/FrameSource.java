@@ -0,0 +1,80 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Supplies the frames of an Animation by index. Frames may be made
+ * ahead of time, or only once they are needed.
+ */
+interface FrameSource {
+
+    /**
+     * @return the number of frames
+     */
+    int size();
+
+    /**
+     * Returns a frame without waiting for it to be made.
+     *
+     * @param index the index of the frame
+     * @return the frame, or null if it is not ready yet
+     */
+    Image get(int index);
+
+    /**
+     * Tells the source that a frame will be needed soon.
+     *
+     * @param index the index of the frame
+     */
+    default void prefetch(int index) {
+    }
+
+    /**
+     * Tells the source that no frames are needed until the animation
+     * plays again, so it may close the files frames are read from.
+     */
+    default void close() {
+    }
+
+    /**
+     * @return a source of frames that were all made ahead of time
+     */
+    static FrameSource of(List<Image> frames) {
+        Image[] images = frames.toArray(new Image[0]);
+        return new FrameSource() {
+            @Override
+            public int size() {
+                return images.length;
+            }
+
+            @Override
+            public Image get(int index) {
+                return images[index];
+            }
+        };
+    }
+}
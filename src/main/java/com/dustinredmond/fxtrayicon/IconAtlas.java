@@ -0,0 +1,280 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.dustinredmond.fxtrayicon.annotations.API;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.net.URL;
+import java.util.*;
+import java.util.List;
+
+/**
+ * A single image (sprite sheet) holding many icons, which FXTrayIcon can
+ * use for animation frames and for static icons. The sheet is read once,
+ * and the icons are cut from it without copying its pixels. When an icon
+ * in the sheet already has the tray icon size it is used as is, otherwise
+ * only the scaled copy is kept.
+ * <p>
+ * Icons are either laid out in a grid of equally sized cells, see
+ * {@link #grid(URL, int, int)}, or described by a properties file, see
+ * {@link #fromProperties(URL, URL)}.
+ */
+public class IconAtlas {
+
+    private final BufferedImage sheet;
+    private final Map<String, Rectangle> regions;
+
+    private IconAtlas(BufferedImage sheet, Map<String, Rectangle> regions) {
+        this.sheet = sheet;
+        this.regions = Collections.unmodifiableMap(regions);
+        for (Map.Entry<String, Rectangle> region : regions.entrySet()) {
+            if (!new Rectangle(sheet.getWidth(), sheet.getHeight()).contains(region.getValue())) {
+                throw new IllegalArgumentException("The icon \"" + region.getKey()
+                        + "\" lies outside of the sprite sheet.");
+            }
+        }
+    }
+
+    /**
+     * Creates an IconAtlas from a sprite sheet made of equally sized cells.
+     * The icons are named by their position, counting from "0" for the top
+     * left cell, row by row, which is also the order of animation frames.
+     *
+     * @param sheet   URL of the sprite sheet image
+     * @param columns the number of cells in each row
+     * @param rows    the number of rows of cells
+     * @return a new IconAtlas
+     */
+    @API
+    public static IconAtlas grid(URL sheet, int columns, int rows) {
+        BufferedImage image = readSheet(sheet);
+        return new IconAtlas(image, gridRegions(image, columns, rows));
+    }
+
+    /**
+     * Creates an IconAtlas from a sprite sheet made of equally sized cells.
+     * The icons are named by their position, counting from "0" for the top
+     * left cell, row by row, which is also the order of animation frames.
+     *
+     * @param sheet   the sprite sheet image file
+     * @param columns the number of cells in each row
+     * @param rows    the number of rows of cells
+     * @return a new IconAtlas
+     */
+    @API
+    public static IconAtlas grid(File sheet, int columns, int rows) {
+        BufferedImage image = readSheet(sheet);
+        return new IconAtlas(image, gridRegions(image, columns, rows));
+    }
+
+    /**
+     * Creates an IconAtlas from a sprite sheet and a properties file which
+     * names each icon and its position on the sheet in pixels, as
+     * {@code name = x, y, width, height}. The order of the entries in the
+     * properties file is the order of animation frames.
+     *
+     * @param sheet      URL of the sprite sheet image
+     * @param properties URL of the properties file describing the icons
+     * @return a new IconAtlas
+     */
+    @API
+    public static IconAtlas fromProperties(URL sheet, URL properties) {
+        try (InputStream is = properties.openStream()) {
+            return new IconAtlas(readSheet(sheet), readRegions(is));
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Unable to read the icon atlas at the provided path: " + properties, e);
+        }
+    }
+
+    /**
+     * Creates an IconAtlas from a sprite sheet and a properties file which
+     * names each icon and its position on the sheet in pixels, as
+     * {@code name = x, y, width, height}. The order of the entries in the
+     * properties file is the order of animation frames.
+     *
+     * @param sheet      the sprite sheet image file
+     * @param properties the properties file describing the icons
+     * @return a new IconAtlas
+     */
+    @API
+    public static IconAtlas fromProperties(File sheet, File properties) {
+        try (InputStream is = new FileInputStream(properties)) {
+            return new IconAtlas(readSheet(sheet), readRegions(is));
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Unable to read the icon atlas at the provided path: " + properties.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * @return the names of the icons in this atlas, in animation frame order
+     */
+    @API
+    public List<String> getNames() {
+        return new ArrayList<>(regions.keySet());
+    }
+
+    /**
+     * @return the number of icons in this atlas
+     */
+    @API
+    public int size() {
+        return regions.size();
+    }
+
+    /**
+     * Returns the icon with the given name, sharing the pixels of the sheet.
+     */
+    BufferedImage getIcon(String name) {
+        Rectangle r = regions.get(name);
+        if (r == null) {
+            throw new IllegalArgumentException("The icon atlas has no icon named \"" + name + "\".");
+        }
+        return sheet.getSubimage(r.x, r.y, r.width, r.height);
+    }
+
+    /**
+     * Used as the icon cache key for an icon of this atlas.
+     */
+    Region region(String name) {
+        return new Region(this, name);
+    }
+
+    private static Map<String, Rectangle> gridRegions(BufferedImage sheet, int columns, int rows) {
+        if (columns < 1 || rows < 1) {
+            throw new IllegalArgumentException("A sprite sheet needs at least one row and one column.");
+        }
+        int cellWidth = sheet.getWidth() / columns;
+        int cellHeight = sheet.getHeight() / rows;
+        Map<String, Rectangle> regions = new LinkedHashMap<>();
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                regions.put(String.valueOf(regions.size()),
+                        new Rectangle(column * cellWidth, row * cellHeight, cellWidth, cellHeight));
+            }
+        }
+        return regions;
+    }
+
+    private static Map<String, Rectangle> readRegions(InputStream is) throws IOException {
+        Map<String, Rectangle> regions = new LinkedHashMap<>();
+        // Properties does not keep the order of its entries, so record them as they are loaded
+        Properties properties = new Properties() {
+            @Override
+            public synchronized Object put(Object key, Object value) {
+                regions.put((String) key, parseRegion((String) key, (String) value));
+                return super.put(key, value);
+            }
+        };
+        properties.load(is);
+        return regions;
+    }
+
+    private static Rectangle parseRegion(String name, String value) {
+        String[] parts = value.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("The icon \"" + name
+                    + "\" must be described as x, y, width, height but was: " + value);
+        }
+        try {
+            return new Rectangle(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                    Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim()));
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The icon \"" + name
+                    + "\" must be described as x, y, width, height but was: " + value, e);
+        }
+    }
+
+    private static BufferedImage readSheet(URL sheet) {
+        try (InputStream is = sheet.openStream()) {
+            return toPremultiplied(IconDecoders.read(is));
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Unable to read the Image at the provided path: " + sheet, e);
+        }
+    }
+
+    private static BufferedImage readSheet(File sheet) {
+        try (InputStream is = new FileInputStream(sheet)) {
+            return toPremultiplied(IconDecoders.read(is));
+        }
+        catch (FileNotFoundException e) {
+            throw new IllegalStateException("Unable to load the Image at the provided path (File not found): " + sheet.getAbsolutePath(), e);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Unable to read the Image at the provided path (perhaps not an image file, or it is corrupt): " + sheet.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Icons of the sheet that do not need scaling are handed to the tray
+     * as sub-images, so the whole sheet is stored in the layout used for
+     * tray icons once, instead of converting every icon.
+     */
+    private static BufferedImage toPremultiplied(BufferedImage image) throws IOException {
+        if (image == null) {
+            throw new IOException("The sprite sheet is not in a supported image format.");
+        }
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB_PRE) {
+            return image;
+        }
+        BufferedImage sheet = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = sheet.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, null);
+        }
+        finally {
+            g.dispose();
+        }
+        return sheet;
+    }
+
+    /**
+     * Identifies one icon of an atlas for the icon cache.
+     */
+    static final class Region {
+
+        private final IconAtlas atlas;
+        private final String name;
+
+        private Region(IconAtlas atlas, String name) {
+            this.atlas = atlas;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Region && ((Region) o).atlas == atlas && ((Region) o).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(atlas) * 31 + name.hashCode();
+        }
+    }
+}
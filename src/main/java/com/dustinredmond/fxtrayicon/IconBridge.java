@@ -0,0 +1,212 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import com.dustinredmond.fxtrayicon.annotations.API;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.IntBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A tray icon image whose pixels are shared by JavaFX and AWT, for icons
+ * that the application draws itself and updates often, such as a counter
+ * or a meter. JavaFX content is read straight into the pixels the tray
+ * icon shows, and Java2D drawing shows up in the JavaFX image without
+ * being copied, so an update does not allocate a new image or convert
+ * one on its way to the tray.
+ * <pre>{@code
+ * IconBridge bridge = new IconBridge(16, 16);
+ * trayIcon.setGraphic(bridge);
+ * // later, on the JavaFX Application Thread
+ * bridge.render(badgeNode);
+ * }</pre>
+ */
+public class IconBridge {
+
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    private final BufferedImage awtImage;
+    private final PixelBuffer<IntBuffer> pixelBuffer;
+    private final List<Consumer<BufferedImage>> listeners = new CopyOnWriteArrayList<>();
+    private volatile WritableImage fxImage;
+    private WritableImage snapshot;
+    private SnapshotParameters snapshotParameters;
+
+    /**
+     * Creates a transparent IconBridge of the given size, which is
+     * usually the icon size of the FXTrayIcon that shows it.
+     *
+     * @param width  the width of the icon in pixels
+     * @param height the height of the icon in pixels
+     */
+    @API
+    public IconBridge(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("An icon must be at least 1 pixel wide and high.");
+        }
+        this.width = width;
+        this.height = height;
+        this.awtImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        this.pixels = ((DataBufferInt) awtImage.getRaster().getDataBuffer()).getData();
+        // A direct buffer cannot back an AWT raster, but PixelBuffer reads a
+        // heap buffer in place, so both toolkits see the same int array
+        this.pixelBuffer = new PixelBuffer<>(width, height, IntBuffer.wrap(pixels),
+                PixelFormat.getIntArgbPreInstance());
+    }
+
+    /**
+     * @return the width of the icon in pixels
+     */
+    @API
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height of the icon in pixels
+     */
+    @API
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns a JavaFX image that shows the pixels of this icon, for
+     * example to show the same icon in a window. It is updated together
+     * with the tray icon and does not hold a copy of the pixels.
+     *
+     * @return a JavaFX image backed by the pixels of this icon
+     */
+    @API
+    public WritableImage getImage() {
+        WritableImage image = fxImage;
+        if (image == null) {
+            synchronized (this) {
+                if (fxImage == null) {
+                    fxImage = new WritableImage(pixelBuffer);
+                }
+                image = fxImage;
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Copies the pixels of a JavaFX image of the same size straight into
+     * this icon and shows them.
+     *
+     * @param image a JavaFX image with the size of this icon
+     */
+    @API
+    public void render(javafx.scene.image.Image image) {
+        if ((int) image.getWidth() != width || (int) image.getHeight() != height) {
+            throw new IllegalArgumentException("The image is " + (int) image.getWidth() + "x"
+                    + (int) image.getHeight() + " pixels, but the icon is " + width + "x" + height + ".");
+        }
+        image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(),
+                pixels, 0, width);
+        changed();
+    }
+
+    /**
+     * Draws a JavaFX node into this icon and shows it. The node is
+     * drawn from its top left corner on a transparent background, into
+     * the same scratch image every time. Must be called on the JavaFX
+     * Application Thread.
+     *
+     * @param node the node to draw, for example a Canvas or a Label
+     */
+    @API
+    public void render(Node node) {
+        if (snapshot == null) {
+            snapshot = new WritableImage(width, height);
+            snapshotParameters = new SnapshotParameters();
+            snapshotParameters.setFill(Color.TRANSPARENT);
+        }
+        render(node.snapshot(snapshotParameters, snapshot));
+    }
+
+    /**
+     * Returns a Graphics2D that draws into the pixels of this icon.
+     * Call {@link #changed()} once the drawing is done to show it.
+     *
+     * @return a new Graphics2D, which should be disposed of after use
+     */
+    @API
+    public Graphics2D createGraphics() {
+        return awtImage.createGraphics();
+    }
+
+    /**
+     * Shows the current pixels of this icon in the tray, and in the
+     * JavaFX image if one was requested. Called by the render methods,
+     * and needed after drawing with {@link #createGraphics()}.
+     */
+    @API
+    public void changed() {
+        if (fxImage != null) {
+            if (Platform.isFxApplicationThread()) {
+                pixelBuffer.updateBuffer(buffer -> null);
+            }
+            else {
+                Platform.runLater(() -> pixelBuffer.updateBuffer(buffer -> null));
+            }
+        }
+        for (Consumer<BufferedImage> listener : listeners) {
+            listener.accept(awtImage);
+        }
+    }
+
+    /**
+     * The image handed to the tray, sharing the pixels of this icon.
+     */
+    BufferedImage awtImage() {
+        return awtImage;
+    }
+
+    PixelBuffer<IntBuffer> pixelBuffer() {
+        return pixelBuffer;
+    }
+
+    void addListener(Consumer<BufferedImage> listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(Consumer<BufferedImage> listener) {
+        listeners.remove(listener);
+    }
+}
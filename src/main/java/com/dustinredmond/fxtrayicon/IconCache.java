@@ -0,0 +1,278 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Process wide cache of icons that have already been read and scaled
+ * by FXTrayIcon. Entries are keyed by the identity of the source, the
+ * requested dimensions and the scaler, so switching back and forth
+ * between a handful of icons only decodes each of them once.
+ * <p>
+ * The cache is bounded and evicts the least recently used entry once
+ * full. Cached images are also held through a {@code SoftReference}
+ * so that the garbage collector can reclaim them under memory pressure.
+ * <p>
+ * The decoded, unscaled sources are kept in a second, smaller cache, so
+ * that tray icons using the same source at different sizes scale it from
+ * memory instead of reading it again.
+ */
+class IconCache {
+
+    private static final int DEFAULT_MAXIMUM_SIZE = 64;
+
+    private static int maximumSize = DEFAULT_MAXIMUM_SIZE;
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong decodes = new AtomicLong();
+
+    private static final Map<Key, SoftReference<Image>> cache =
+            new LinkedHashMap<Key, SoftReference<Image>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, SoftReference<Image>> eldest) {
+                    return size() > maximumSize;
+                }
+            };
+
+    private static final int MAXIMUM_SOURCES = 16;
+
+    private static final Map<Object, SoftReference<BufferedImage>> sources =
+            new LinkedHashMap<Object, SoftReference<BufferedImage>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, SoftReference<BufferedImage>> eldest) {
+                    return size() > MAXIMUM_SOURCES;
+                }
+            };
+
+    /**
+     * Reads the unscaled image of an icon source.
+     */
+    interface Decoder {
+        BufferedImage decode() throws IOException;
+    }
+
+    private IconCache() {
+    }
+
+    /**
+     * Returns the cached image for the given source and dimensions, loading
+     * it with the supplied loader when it is not cached yet. Loading happens
+     * outside the cache lock so that a slow decode never blocks lookups of
+     * other icons. Images whose pixels can change after the fact
+     * ({@code BufferedImage} and {@code WritableImage}) are never cached.
+     * @param source the URL, File or Image that the icon is read from
+     * @param width the requested icon width
+     * @param height the requested icon height
+     * @param scaler the scaler used to produce the icon
+     * @param loader reads and scales the icon on a cache miss
+     * @return the cached or freshly loaded icon
+     */
+    static Image get(Object source, int width, int height, IconScaler scaler, Supplier<Image> loader) {
+        if (isMutable(source)) {
+            return loader.get();
+        }
+        Key key = new Key(identityOf(source), width, height, scaler);
+        synchronized (cache) {
+            SoftReference<Image> ref = cache.get(key);
+            Image image = ref == null ? null : ref.get();
+            if (image != null) {
+                hits.incrementAndGet();
+                return image;
+            }
+        }
+        misses.incrementAndGet();
+        Image image = loader.get();
+        synchronized (cache) {
+            cache.put(key, new SoftReference<>(image));
+        }
+        return image;
+    }
+
+    /**
+     * Returns the decoded, unscaled image of the given source, decoding it
+     * only when no icon size has needed it recently. Like the scaled icons,
+     * sources whose pixels can change are never cached.
+     * @param source the URL or File that the icon is read from
+     * @param decoder reads the source when it is not cached
+     * @return the decoded source, or null if the decoder returned null
+     * @throws IOException if the decoder fails
+     */
+    static BufferedImage source(Object source, Decoder decoder) throws IOException {
+        if (isMutable(source)) {
+            decodes.incrementAndGet();
+            return decoder.decode();
+        }
+        Object key = identityOf(source);
+        synchronized (sources) {
+            SoftReference<BufferedImage> ref = sources.get(key);
+            BufferedImage image = ref == null ? null : ref.get();
+            if (image != null) {
+                return image;
+            }
+        }
+        decodes.incrementAndGet();
+        BufferedImage image = decoder.decode();
+        if (image != null) {
+            synchronized (sources) {
+                sources.put(key, new SoftReference<>(image));
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Sets the maximum number of icons kept by the cache, evicting the
+     * least recently used icons if the cache currently holds more.
+     * @param size the maximum number of cached icons, zero disables caching
+     */
+    static void setMaximumSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Icon cache size must not be negative.");
+        }
+        synchronized (cache) {
+            maximumSize = size;
+            cache.keySet().removeIf(k -> cache.size() > maximumSize);
+        }
+    }
+
+    /**
+     * Removes every icon and source from the cache and resets the counters.
+     */
+    static void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+        synchronized (sources) {
+            sources.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+        decodes.set(0);
+    }
+
+    static long getHitCount() {
+        return hits.get();
+    }
+
+    static long getMissCount() {
+        return misses.get();
+    }
+
+    static long getDecodeCount() {
+        return decodes.get();
+    }
+
+    static int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private static boolean isMutable(Object source) {
+        return source instanceof java.awt.image.BufferedImage
+                || source instanceof javafx.scene.image.WritableImage;
+    }
+
+    /**
+     * URLs are compared by their external form to avoid the name service
+     * lookups done by {@code URL.equals()}, Files by their absolute path and
+     * modification time so an edited file is read again, atlas regions by
+     * their atlas and name, and anything else (Image objects) by reference.
+     */
+    private static Object identityOf(Object source) {
+        if (source instanceof URL) {
+            return ((URL) source).toExternalForm();
+        }
+        if (source instanceof File) {
+            File file = ((File) source).getAbsoluteFile();
+            return file.getPath() + '@' + file.lastModified();
+        }
+        if (source instanceof IconAtlas.Region) {
+            return source;
+        }
+        return new IdentityKey(source);
+    }
+
+    private static final class IdentityKey {
+
+        private final Object source;
+
+        IdentityKey(Object source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).source == source;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(source);
+        }
+    }
+
+    private static final class Key {
+
+        private final Object source;
+        private final int width;
+        private final int height;
+        private final IconScaler scaler;
+
+        Key(Object source, int width, int height, IconScaler scaler) {
+            this.source = source;
+            this.width = width;
+            this.height = height;
+            this.scaler = scaler;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return width == key.width && height == key.height
+                    && scaler == key.scaler && source.equals(key.source);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, width, height, scaler);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import com.dustinredmond.fxtrayicon.annotations.API;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads icon images for FXTrayIcon. Every icon that FXTrayIcon reads from
+ * a URL or a File, and every frame it streams, is offered to the available
+ * decoders in turn, and the first one that accepts the image decodes it.
+ * Decoders registered with {@link FXTrayIcon#registerIconDecoder(IconDecoder)}
+ * are asked first, then those found through {@code java.util.ServiceLoader},
+ * then the built-in PNG decoder, and finally {@code javax.imageio.ImageIO},
+ * which reads everything else.
+ * <p>
+ * Implementations must be safe to use from several threads at once,
+ * as frames are read on background threads.
+ */
+public interface IconDecoder {
+
+    /**
+     * Tells whether this decoder reads images that start with the given bytes.
+     *
+     * @param header the first bytes of the image, 64 of them unless the
+     *               image is shorter, which covers the fixed size header
+     *               of most image formats
+     * @return true if this decoder decodes the image
+     */
+    @API
+    boolean canDecode(byte[] header);
+
+    /**
+     * Decodes an image. The stream is positioned at the start of the image
+     * and is closed by the caller.
+     *
+     * @param in the image data
+     * @return the decoded image
+     * @throws IOException if the image cannot be read
+     */
+    @API
+    BufferedImage decode(InputStream in) throws IOException;
+}
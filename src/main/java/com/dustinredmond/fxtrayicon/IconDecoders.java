@@ -0,0 +1,107 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Picks the IconDecoder for an image, see {@link IconDecoder} for the
+ * order in which decoders are asked.
+ */
+final class IconDecoders {
+
+    private static final int HEADER_LENGTH = 64;
+
+    private static final List<IconDecoder> registered = new CopyOnWriteArrayList<>();
+
+    private IconDecoders() {
+    }
+
+    /**
+     * Decoders found on the class path or module path, looked up once.
+     */
+    private static final class Services {
+        static final List<IconDecoder> DECODERS = load();
+
+        private static List<IconDecoder> load() {
+            List<IconDecoder> decoders = new ArrayList<>();
+            ServiceLoader.load(IconDecoder.class, IconDecoder.class.getClassLoader()).forEach(decoders::add);
+            return Collections.unmodifiableList(decoders);
+        }
+    }
+
+    /**
+     * Asks the given decoder before all others, the last one registered first.
+     */
+    static void register(IconDecoder decoder) {
+        if (decoder == null) {
+            throw new IllegalArgumentException("decoder must not be null");
+        }
+        registered.add(0, decoder);
+    }
+
+    static void unregister(IconDecoder decoder) {
+        registered.remove(decoder);
+    }
+
+    /**
+     * Decodes an image with the first decoder that accepts it.
+     * @param in the image data, it is not closed by this method
+     * @return the decoded image, or null if no decoder could read it
+     * @throws IOException if the image cannot be read
+     */
+    static BufferedImage read(InputStream in) throws IOException {
+        BufferedInputStream bin = in instanceof BufferedInputStream
+                ? (BufferedInputStream) in : new BufferedInputStream(in);
+        bin.mark(HEADER_LENGTH);
+        byte[] header = bin.readNBytes(HEADER_LENGTH);
+        bin.reset();
+        IconDecoder decoder = find(registered, header);
+        if (decoder == null) {
+            decoder = find(Services.DECODERS, header);
+        }
+        if (decoder == null && PngDecoder.INSTANCE.canDecode(header)) {
+            decoder = PngDecoder.INSTANCE;
+        }
+        return decoder != null ? decoder.decode(bin) : ImageIO.read(bin);
+    }
+
+    private static IconDecoder find(List<IconDecoder> decoders, byte[] header) {
+        for (IconDecoder decoder : decoders) {
+            if (decoder.canDecode(header)) {
+                return decoder;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,182 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.MultiResolutionImage;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process wide registry of the icon rasters FXTrayIcon has made, by
+ * content. When a new icon or animation frame has exactly the same pixels
+ * as one that is still in use, the existing raster is used instead, so
+ * identical frames take memory once and are recognized as the same image
+ * without comparing pixels again.
+ * <p>
+ * Rasters are only held weakly, an icon that is no longer used anywhere
+ * else drops out of the registry.
+ */
+final class IconDeduplicator {
+
+    private static final class Entry extends WeakReference<BufferedImage> {
+
+        private final int fingerprint;
+
+        private Entry(BufferedImage image, int fingerprint, ReferenceQueue<BufferedImage> queue) {
+            super(image, queue);
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static final Map<Integer, List<Entry>> entries = new HashMap<>();
+    // BufferedImage keeps the identity equals(), so this tells the registered rasters apart from equal copies
+    private static final Map<BufferedImage, Boolean> registered = new WeakHashMap<>();
+    private static final ReferenceQueue<BufferedImage> collected = new ReferenceQueue<>();
+    private static final AtomicLong shared = new AtomicLong();
+
+    private IconDeduplicator() {
+    }
+
+    /**
+     * Returns the registered raster with the same pixels as the given one,
+     * or registers and returns the given one. Only pass rasters that were
+     * made by FXTrayIcon, as the returned raster may be handed out again.
+     *
+     * @param image an icon in the layout made by {@link ImageUtils#rasterize}
+     * @return an image with the same pixels
+     */
+    static Image intern(Image image) {
+        if (!isComparable(image)) {
+            return image;
+        }
+        BufferedImage raster = (BufferedImage) image;
+        int[] pixels = pixels(raster);
+        int fingerprint = 31 * (31 * Arrays.hashCode(pixels) + raster.getWidth()) + raster.getHeight();
+        synchronized (entries) {
+            expungeCollected();
+            List<Entry> bucket = entries.computeIfAbsent(fingerprint, key -> new ArrayList<>(1));
+            for (Entry entry : bucket) {
+                BufferedImage existing = entry.get();
+                if (existing != null && existing != raster && isSame(existing, raster)) {
+                    shared.incrementAndGet();
+                    return existing;
+                }
+            }
+            bucket.add(new Entry(raster, fingerprint, collected));
+            registered.put(raster, Boolean.TRUE);
+            return raster;
+        }
+    }
+
+    /**
+     * @return true if the image is a raster handed out by intern(), whose
+     * pixels FXTrayIcon never changes
+     */
+    static boolean isInterned(Image image) {
+        if (!(image instanceof BufferedImage)) {
+            return false;
+        }
+        synchronized (entries) {
+            return registered.containsKey(image);
+        }
+    }
+
+    /**
+     * @return true if both images are the same image, or rasters with the same pixels
+     */
+    static boolean samePixels(Image a, Image b) {
+        if (a == b) {
+            return true;
+        }
+        if (a instanceof MultiResolutionImage && b instanceof MultiResolutionImage) {
+            List<Image> variantsA = ((MultiResolutionImage) a).getResolutionVariants();
+            List<Image> variantsB = ((MultiResolutionImage) b).getResolutionVariants();
+            if (variantsA.size() != variantsB.size()) {
+                return false;
+            }
+            for (int i = 0; i < variantsA.size(); i++) {
+                if (!samePixels(variantsA.get(i), variantsB.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return a != null && b != null && isComparable(a) && isComparable(b)
+               && isSame((BufferedImage) a, (BufferedImage) b);
+    }
+
+    private static boolean isSame(BufferedImage a, BufferedImage b) {
+        return a.getWidth() == b.getWidth() && a.getHeight() == b.getHeight()
+               && Arrays.equals(pixels(a), pixels(b));
+    }
+
+    /**
+     * Sub-images share the pixels of a larger image, so only images that
+     * own all of their pixels are compared.
+     */
+    private static boolean isComparable(Image image) {
+        if (!(image instanceof BufferedImage)) {
+            return false;
+        }
+        BufferedImage raster = (BufferedImage) image;
+        return raster.getType() == BufferedImage.TYPE_INT_ARGB_PRE
+               && raster.getRaster().getDataBuffer().getSize() == raster.getWidth() * raster.getHeight();
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    private static void expungeCollected() {
+        for (Reference<? extends BufferedImage> reference = collected.poll(); reference != null;
+             reference = collected.poll()) {
+            Entry entry = (Entry) reference;
+            List<Entry> bucket = entries.get(entry.fingerprint);
+            if (bucket != null) {
+                bucket.remove(entry);
+                if (bucket.isEmpty()) {
+                    entries.remove(entry.fingerprint);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of times an existing raster was used in place of a new one
+     */
+    static long getSharedCount() {
+        return shared.get();
+    }
+}
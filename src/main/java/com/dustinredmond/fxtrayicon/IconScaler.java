@@ -0,0 +1,55 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+/**
+ * Selects how icons and animation frames are scaled to the tray icon size,
+ * see {@link FXTrayIcon#setIconScaler(IconScaler)} and
+ * {@link FXTrayIcon#setFrameScaler(IconScaler)}. Scaled icons are cached
+ * per scaler, so the same source can be used with different scalers.
+ */
+public enum IconScaler {
+
+    /**
+     * Picks the nearest source pixel for every icon pixel. The fastest
+     * scaler, and the right one for pixel art scaled by whole factors,
+     * but large images scaled down lose thin lines and look jagged.
+     */
+    NEAREST,
+
+    /**
+     * Halves the image with bilinear filtering until it is less than
+     * twice the icon size, then scales the rest of the way in one more
+     * bilinear step. Much faster than AREA_AVERAGING when a large image
+     * is scaled down to a tray icon, and close to it in quality, which
+     * suits animation frames.
+     */
+    PROGRESSIVE_BILINEAR,
+
+    /**
+     * Averages all source pixels that fall into each icon pixel, as
+     * {@code Image.SCALE_SMOOTH} does. The slowest scaler and the best
+     * looking one. This is the default.
+     */
+    AREA_AVERAGING
+}
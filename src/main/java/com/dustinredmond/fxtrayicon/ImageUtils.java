@@ -0,0 +1,212 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+class ImageUtils {
+
+    /**
+     * Used by MediaTracker to wait for asynchronously produced images,
+     * it is never displayed.
+     */
+    private static final Component TRACKER_COMPONENT = new Container();
+
+    private ImageUtils() {
+    }
+
+    /**
+     * Scales the given image with area averaging, see
+     * {@link #rasterize(Image, int, int, IconScaler)}.
+     * @param source The image to be scaled
+     * @param width The width of the returned image
+     * @param height The height of the returned image
+     * @return A new image, or {@code source} if it is already in the required form
+     */
+    static BufferedImage rasterize(Image source, int width, int height) {
+        return rasterize(source, width, height, IconScaler.AREA_AVERAGING);
+    }
+
+    /**
+     * Scales the given image and renders it into a fully decoded
+     * {@code BufferedImage} of type {@code TYPE_INT_ARGB_PRE}, which is the
+     * layout the Java2D pipelines blit without any conversion.
+     * <p>
+     * {@code Image.getScaledInstance()} on its own returns a lazy image that
+     * re-runs its scaling filter whenever the tray peer draws it. Rendering
+     * the result once here means that showing the icon, or swapping
+     * animation frames, is a plain copy of pixels.
+     * @param source The image to be scaled
+     * @param width The width of the returned image
+     * @param height The height of the returned image
+     * @param scaler How the image is scaled
+     * @return A new image, or {@code source} if it is already in the required form
+     */
+    static BufferedImage rasterize(Image source, int width, int height, IconScaler scaler) {
+        if (source instanceof BufferedImage) {
+            BufferedImage buffered = (BufferedImage) source;
+            if (buffered.getType() == BufferedImage.TYPE_INT_ARGB_PRE
+                && buffered.getWidth() == width && buffered.getHeight() == height) {
+                return buffered;
+            }
+        }
+        switch (scaler) {
+            case NEAREST:
+                waitForImage(source);
+                return draw(source, width, height, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            case PROGRESSIVE_BILINEAR:
+                waitForImage(source);
+                return progressive(source, width, height);
+            default:
+                Image scaled = source.getScaledInstance(width, height, Image.SCALE_SMOOTH);
+                waitForImage(scaled);
+                BufferedImage raster = draw(scaled, width, height, null);
+                scaled.flush();
+                return raster;
+        }
+    }
+
+    /**
+     * Bilinear filtering only looks at the four nearest source pixels, so
+     * one large step would skip most of the image. Halving at a time lets
+     * every source pixel contribute, while each step only costs a quarter
+     * of the one before.
+     */
+    private static BufferedImage progressive(Image source, int width, int height) {
+        Image current = source;
+        int w = source.getWidth(null);
+        int h = source.getHeight(null);
+        while (w >= width * 2 || h >= height * 2) {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage half = draw(current, w, h, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            if (current != source) {
+                current.flush();
+            }
+            current = half;
+        }
+        if (w == width && h == height && current != source) {
+            return (BufferedImage) current;
+        }
+        BufferedImage raster = draw(current, width, height, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        if (current != source) {
+            current.flush();
+        }
+        return raster;
+    }
+
+    private static BufferedImage draw(Image source, int width, int height, Object interpolation) {
+        BufferedImage raster = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = raster.createGraphics();
+        try {
+            if (interpolation != null) {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            }
+            g.drawImage(source, 0, 0, width, height, null);
+        }
+        finally {
+            g.dispose();
+        }
+        return raster;
+    }
+
+    /**
+     * @param image A {@code TYPE_INT_ARGB_PRE} image
+     * @return A new image of the same size that owns a copy of the pixels
+     */
+    static BufferedImage copy(BufferedImage image) {
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+        copy.getRaster().setDataElements(0, 0, image.getWidth(), image.getHeight(), pixels(image));
+        return copy;
+    }
+
+    /**
+     * Returns the pixels of an image made by {@link #rasterize}, row by row.
+     * An image that owns all of its pixels hands out its own array. Icons
+     * cut from an IconAtlas are sub-images that share the pixels of the
+     * whole sheet, so their pixels are copied from within their bounds.
+     * @param image A {@code TYPE_INT_ARGB_PRE} image
+     * @return width * height premultiplied ARGB pixels, which must not be
+     * changed unless the image itself should change
+     */
+    static int[] pixels(BufferedImage image) {
+        if (ownsPixels(image)) {
+            return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        }
+        return (int[]) image.getRaster().getDataElements(0, 0, image.getWidth(), image.getHeight(), null);
+    }
+
+    /**
+     * @param image A {@code TYPE_INT_ARGB_PRE} image
+     * @return true if the image is not a view into the pixels of a larger image
+     */
+    static boolean ownsPixels(BufferedImage image) {
+        return image.getRaster().getDataBuffer().getSize() == image.getWidth() * image.getHeight();
+    }
+
+    /**
+     * Makes a brighter copy of an icon, by moving every pixel halfway
+     * towards white while keeping its transparency.
+     * @param source The icon to brighten
+     * @return A new image of the same size as {@code source}
+     */
+    static BufferedImage highlighted(Image source) {
+        BufferedImage raster = rasterize(source, source.getWidth(null), source.getHeight(null));
+        BufferedImage highlighted = new BufferedImage(raster.getWidth(), raster.getHeight(),
+                BufferedImage.TYPE_INT_ARGB_PRE);
+        // an atlas icon shares its sheet's buffer, so only its own pixels are read
+        int[] from = pixels(raster);
+        int[] to = ((DataBufferInt) highlighted.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < from.length; i++) {
+            int alpha = from[i] >>> 24;
+            int pixel = from[i] & 0xFF000000;
+            // premultiplied white at this pixel's alpha is (alpha, alpha, alpha)
+            for (int shift = 0; shift < 24; shift += 8) {
+                int channel = from[i] >>> shift & 0xFF;
+                pixel |= (channel + alpha + 1 >> 1) << shift;
+            }
+            to[i] = pixel;
+        }
+        return highlighted;
+    }
+
+    /**
+     * Blocks until the pixels of the given image have been produced.
+     * @param image An image which may be produced asynchronously
+     */
+    static void waitForImage(Image image) {
+        MediaTracker tracker = new MediaTracker(TRACKER_COMPONENT);
+        tracker.addImage(image, 0);
+        try {
+            tracker.waitForID(0);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (tracker.isErrorID(0)) {
+            throw new IllegalStateException("Unable to produce the scaled icon image.");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import java.awt.*;
+import java.awt.image.BaseMultiResolutionImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Renders a tray icon at several sizes at once, so that on a HiDPI panel
+ * the tray picks the variant drawn for its scale instead of stretching a
+ * small icon, which looks blurry and resamples on every repaint. The base
+ * variant has exactly the size of a tray icon slot, as reported by the
+ * system tray.
+ */
+final class MultiResolutionIcons {
+
+    /**
+     * Reads and scales an icon to the given size.
+     */
+    interface Loader {
+        Image load(int width, int height);
+    }
+
+    /**
+     * The sizes tray icons commonly have, at any scale.
+     */
+    static final int[] SIZES = {16, 22, 24, 32, 48};
+
+    /**
+     * Display scales for which a variant of the tray slot size is added.
+     */
+    private static final double[] SCALES = {1.25, 1.5, 2};
+
+    private static Dimension traySlotSize;
+
+    private MultiResolutionIcons() {
+    }
+
+    /**
+     * Asks the system tray for the size of a tray icon slot, only once.
+     *
+     * @param fallback the size to use without a system tray
+     */
+    static synchronized Dimension getTraySlotSize(Dimension fallback) {
+        if (traySlotSize == null) {
+            if (!SystemTray.isSupported()) {
+                return fallback;
+            }
+            traySlotSize = SystemTray.getSystemTray().getTrayIconSize();
+        }
+        return traySlotSize;
+    }
+
+    /**
+     * Renders an icon at the tray slot size and at the other common sizes.
+     *
+     * @param loader reads and scales the icon, usually from the icon cache
+     * @param slot   the size of a tray icon slot
+     * @return an image whose base variant has the size of {@code slot}
+     */
+    static Image of(Loader loader, Dimension slot) {
+        TreeSet<Integer> widths = new TreeSet<>();
+        widths.add(slot.width);
+        for (int size : SIZES) {
+            widths.add(size);
+        }
+        for (double scale : SCALES) {
+            widths.add((int) Math.round(slot.width * scale));
+        }
+        List<Image> variants = new ArrayList<>(widths.size());
+        int baseIndex = 0;
+        for (int width : widths) {
+            if (width == slot.width) {
+                baseIndex = variants.size();
+            }
+            int height = Math.max(1, (int) Math.round((double) width * slot.height / slot.width));
+            variants.add(loader.load(width, height));
+        }
+        return new BaseMultiResolutionImage(baseIndex, variants.toArray(new Image[0]));
+    }
+}
@@ -0,0 +1,165 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import com.dustinredmond.fxtrayicon.annotations.API;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An animated icon made of a single indexed-colour image whose palette
+ * changes from frame to frame, for icons that pulse or rotate their
+ * colours. All frames share the pixels of the one image, so an animation
+ * of N frames costs one image plus N small palettes instead of N images.
+ * <pre>{@code
+ * PaletteCycle cycle = new PaletteCycle(indexedIcon).addRotations(1, 8);
+ * trayIcon.newAnimation(cycle, new FrameSequence(80));
+ * }</pre>
+ */
+public class PaletteCycle {
+
+    private final WritableRaster raster;
+    private final IndexColorModel basePalette;
+    private final List<IndexColorModel> palettes = new ArrayList<>();
+
+    /**
+     * Creates a PaletteCycle from an image with an indexed colour model,
+     * such as a GIF or an image of type {@code TYPE_BYTE_INDEXED}.
+     * Palettes are added with {@link #addPalette(IndexColorModel)} or
+     * {@link #addRotations(int, int)}.
+     *
+     * @param indexedImage the image whose pixels every frame shares
+     */
+    @API
+    public PaletteCycle(BufferedImage indexedImage) {
+        if (!(indexedImage.getColorModel() instanceof IndexColorModel)) {
+            throw new IllegalArgumentException("A palette animation needs an image with an indexed colour model.");
+        }
+        this.raster = indexedImage.getRaster();
+        this.basePalette = (IndexColorModel) indexedImage.getColorModel();
+    }
+
+    /**
+     * Adds a frame that shows the image with the given palette.
+     *
+     * @param palette the colours of the frame, with as many entries as the image uses
+     * @return this PaletteCycle
+     */
+    @API
+    public PaletteCycle addPalette(IndexColorModel palette) {
+        if (palette.getMapSize() < basePalette.getMapSize()
+            || palette.getPixelSize() != basePalette.getPixelSize()) {
+            throw new IllegalArgumentException("The palette must have the same pixel size and at least "
+                    + basePalette.getMapSize() + " colours.");
+        }
+        palettes.add(palette);
+        return this;
+    }
+
+    /**
+     * Adds one frame for each step of rotating the colours between two
+     * palette entries of the image, the classic colour cycling effect.
+     * The first added frame shows the image's own palette.
+     *
+     * @param firstIndex the first palette entry that is rotated
+     * @param lastIndex  the last palette entry that is rotated
+     * @return this PaletteCycle
+     */
+    @API
+    public PaletteCycle addRotations(int firstIndex, int lastIndex) {
+        int mapSize = basePalette.getMapSize();
+        if (firstIndex < 0 || lastIndex >= mapSize || firstIndex >= lastIndex) {
+            throw new IllegalArgumentException("The rotated palette entries must lie between 0 and "
+                    + (mapSize - 1) + " and span at least two colours.");
+        }
+        int[] colours = new int[mapSize];
+        basePalette.getRGBs(colours);
+        int span = lastIndex - firstIndex + 1;
+        int[] rotated = new int[mapSize];
+        for (int step = 0; step < span; step++) {
+            System.arraycopy(colours, 0, rotated, 0, mapSize);
+            for (int i = 0; i < span; i++) {
+                rotated[firstIndex + (i + step) % span] = colours[firstIndex + i];
+            }
+            palettes.add(new IndexColorModel(basePalette.getPixelSize(), mapSize, rotated, 0,
+                    basePalette.hasAlpha(), basePalette.getTransparentPixel(), basePalette.getTransferType()));
+        }
+        return this;
+    }
+
+    /**
+     * @return the number of frames, one per palette
+     */
+    @API
+    public int getPaletteCount() {
+        return palettes.size();
+    }
+
+    /**
+     * Makes the frames at the given icon size. The image is scaled once,
+     * picking the nearest pixel so that no new colours are made, and every
+     * frame is a view of the scaled pixels through its own palette.
+     */
+    FrameSource frames(int width, int height) {
+        if (palettes.isEmpty()) {
+            throw new IllegalStateException("A palette animation needs at least one palette.");
+        }
+        WritableRaster pixels = scale(width, height);
+        Image[] frames = new Image[palettes.size()];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = new BufferedImage(palettes.get(i), pixels, false, null);
+        }
+        return new FrameSource() {
+            @Override
+            public int size() {
+                return frames.length;
+            }
+
+            @Override
+            public Image get(int index) {
+                return frames[index];
+            }
+        };
+    }
+
+    private WritableRaster scale(int width, int height) {
+        if (raster.getWidth() == width && raster.getHeight() == height) {
+            return raster;
+        }
+        WritableRaster scaled = basePalette.createCompatibleWritableRaster(width, height);
+        for (int y = 0; y < height; y++) {
+            int sourceY = raster.getMinY() + y * raster.getHeight() / height;
+            for (int x = 0; x < width; x++) {
+                int sourceX = raster.getMinX() + x * raster.getWidth() / width;
+                scaled.setSample(x, y, 0, raster.getSample(sourceX, sourceY, 0));
+            }
+        }
+        return scaled;
+    }
+}
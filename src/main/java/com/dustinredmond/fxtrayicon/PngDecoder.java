@@ -0,0 +1,407 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads non-interlaced PNG images, the usual format of tray icons, without
+ * going through ImageIO. The image data is inflated one row at a time and
+ * turned straight into the premultiplied ARGB pixels of the returned image,
+ * which is the layout FXTrayIcon scales and shows icons in, so an icon that
+ * already has the tray icon size is used as it was decoded. Chunk checksums
+ * are not verified and colour space chunks are ignored, as ImageIO does for
+ * the images it returns. Interlaced images are left to ImageIO.
+ */
+final class PngDecoder implements IconDecoder {
+
+    static final PngDecoder INSTANCE = new PngDecoder();
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int IHDR = 0x49484452;
+    private static final int PLTE = 0x504C5445;
+    private static final int TRNS = 0x74524E53;
+    private static final int IDAT = 0x49444154;
+
+    private static final int GRAY = 0;
+    private static final int RGB = 2;
+    private static final int PALETTE = 3;
+    private static final int GRAY_ALPHA = 4;
+    private static final int RGB_ALPHA = 6;
+
+    private PngDecoder() {
+    }
+
+    @Override
+    public boolean canDecode(byte[] header) {
+        if (header.length < 29) {
+            return false;
+        }
+        for (int i = 0; i < SIGNATURE.length; i++) {
+            if (header[i] != SIGNATURE[i]) {
+                return false;
+            }
+        }
+        return readInt(header, 12) == IHDR && header[28] == 0
+               && isSupported(header[25], header[24]);
+    }
+
+    @Override
+    public BufferedImage decode(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        skip(data, SIGNATURE.length);
+        Header header = null;
+        int[] palette = null;
+        byte[] transparency = null;
+        while (true) {
+            int length = data.readInt();
+            int type = data.readInt();
+            if (length < 0) {
+                throw new IOException("The PNG image has a chunk of negative length.");
+            }
+            if (type == IDAT) {
+                if (header == null || header.colorType == PALETTE && palette == null) {
+                    throw new IOException("The PNG image has no header or palette before its image data.");
+                }
+                return readPixels(header, palette, transparency, data, length);
+            }
+            if (type == IHDR) {
+                header = new Header(data);
+            }
+            else if (type == PLTE) {
+                palette = new int[length / 3];
+                for (int i = 0; i < palette.length; i++) {
+                    palette[i] = 0xFF000000 | data.readUnsignedByte() << 16
+                                 | data.readUnsignedByte() << 8 | data.readUnsignedByte();
+                }
+                skip(data, length % 3);
+            }
+            else if (type == TRNS) {
+                transparency = new byte[length];
+                data.readFully(transparency);
+            }
+            else {
+                skip(data, length);
+            }
+            skip(data, 4);
+        }
+    }
+
+    private static BufferedImage readPixels(Header header, int[] palette, byte[] transparency,
+                                            DataInputStream data, int firstLength) throws IOException {
+        int width = header.width;
+        int bitDepth = header.bitDepth;
+        int bitsPerPixel = bitDepth * channels(header.colorType);
+        int bytesPerPixel = Math.max(1, bitsPerPixel / 8);
+        int rowBytes = (int) (((long) width * bitsPerPixel + 7) / 8);
+        int[] colors = header.colorType == PALETTE ? premultiplied(palette, transparency) : null;
+        // the transparent grey or RGB colour, compared with the full 16 bit samples
+        long transparent = -1;
+        if (transparency != null && header.colorType == GRAY && transparency.length >= 2) {
+            transparent = readShort(transparency, 0);
+        }
+        else if (transparency != null && header.colorType == RGB && transparency.length >= 6) {
+            transparent = 0;
+            for (int i = 0; i < 6; i += 2) {
+                transparent = transparent << (bitDepth == 16 ? 16 : 8) | readShort(transparency, i);
+            }
+        }
+
+        BufferedImage image = new BufferedImage(width, header.height, BufferedImage.TYPE_INT_ARGB_PRE);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        byte[] previous = new byte[rowBytes];
+        byte[] row = new byte[rowBytes];
+        Inflater inflater = new Inflater();
+        try {
+            DataInputStream rows = new DataInputStream(
+                    new InflaterInputStream(new ImageData(data, firstLength), inflater, Math.max(512, rowBytes)));
+            for (int y = 0; y < header.height; y++) {
+                int filter = rows.readUnsignedByte();
+                rows.readFully(row);
+                unfilter(filter, row, previous, bytesPerPixel);
+                toPixels(header, row, colors, transparent, pixels, y * width);
+                byte[] swap = previous;
+                previous = row;
+                row = swap;
+            }
+        }
+        catch (EOFException e) {
+            throw new IOException("The PNG image data ends early.", e);
+        }
+        finally {
+            inflater.end();
+        }
+        return image;
+    }
+
+    private static void unfilter(int filter, byte[] row, byte[] previous, int bpp) throws IOException {
+        switch (filter) {
+            case 0:
+                break;
+            case 1:
+                for (int i = bpp; i < row.length; i++) {
+                    row[i] += row[i - bpp];
+                }
+                break;
+            case 2:
+                for (int i = 0; i < row.length; i++) {
+                    row[i] += previous[i];
+                }
+                break;
+            case 3:
+                for (int i = 0; i < row.length; i++) {
+                    int left = i >= bpp ? row[i - bpp] & 0xFF : 0;
+                    row[i] += (left + (previous[i] & 0xFF)) >>> 1;
+                }
+                break;
+            case 4:
+                for (int i = 0; i < row.length; i++) {
+                    int left = i >= bpp ? row[i - bpp] & 0xFF : 0;
+                    int up = previous[i] & 0xFF;
+                    int upLeft = i >= bpp ? previous[i - bpp] & 0xFF : 0;
+                    int p = left + up - upLeft;
+                    int pa = Math.abs(p - left);
+                    int pb = Math.abs(p - up);
+                    int pc = Math.abs(p - upLeft);
+                    row[i] += pa <= pb && pa <= pc ? left : pb <= pc ? up : upLeft;
+                }
+                break;
+            default:
+                throw new IOException("The PNG image uses the unknown row filter " + filter + ".");
+        }
+    }
+
+    private static void toPixels(Header header, byte[] row, int[] colors, long transparent,
+                                 int[] pixels, int offset) throws IOException {
+        int width = header.width;
+        int bitDepth = header.bitDepth;
+        // 16 bit samples are cut to their high byte, at twice the stride
+        int step = bitDepth == 16 ? 2 : 1;
+        switch (header.colorType) {
+            case RGB_ALPHA:
+                for (int x = 0, i = 0; x < width; x++, i += 4 * step) {
+                    pixels[offset + x] = premultiply(row[i + 3 * step] & 0xFF,
+                            row[i] & 0xFF, row[i + step] & 0xFF, row[i + 2 * step] & 0xFF);
+                }
+                break;
+            case RGB:
+                for (int x = 0, i = 0; x < width; x++, i += 3 * step) {
+                    int argb = 0xFF000000 | (row[i] & 0xFF) << 16 | (row[i + step] & 0xFF) << 8
+                               | row[i + 2 * step] & 0xFF;
+                    if (transparent != -1 && sample(row, i, bitDepth, 3) == transparent) {
+                        argb = 0;
+                    }
+                    pixels[offset + x] = argb;
+                }
+                break;
+            case GRAY_ALPHA:
+                for (int x = 0, i = 0; x < width; x++, i += 2 * step) {
+                    int gray = row[i] & 0xFF;
+                    pixels[offset + x] = premultiply(row[i + step] & 0xFF, gray, gray, gray);
+                }
+                break;
+            case GRAY:
+                int max = (1 << Math.min(bitDepth, 8)) - 1;
+                for (int x = 0; x < width; x++) {
+                    int value = packed(row, x, bitDepth);
+                    int gray = (bitDepth == 16 ? value >>> 8 : value) * 255 / max;
+                    pixels[offset + x] = value == transparent ? 0 : 0xFF000000 | gray << 16 | gray << 8 | gray;
+                }
+                break;
+            default:
+                for (int x = 0; x < width; x++) {
+                    int index = packed(row, x, bitDepth);
+                    if (index >= colors.length) {
+                        throw new IOException("The PNG image uses colour " + index
+                                              + " of a palette with " + colors.length + " colours.");
+                    }
+                    pixels[offset + x] = colors[index];
+                }
+        }
+    }
+
+    /**
+     * Reads the sample of pixel x in a row of 1, 2, 4, 8 or 16 bit samples.
+     */
+    private static int packed(byte[] row, int x, int bitDepth) {
+        if (bitDepth == 16) {
+            return readShort(row, x * 2);
+        }
+        if (bitDepth == 8) {
+            return row[x] & 0xFF;
+        }
+        int bit = x * bitDepth;
+        return (row[bit >>> 3] & 0xFF) >>> (8 - bitDepth - (bit & 7)) & (1 << bitDepth) - 1;
+    }
+
+    /**
+     * Packs an RGB pixel the way its tRNS colour is packed, 16 or 8 bits per sample.
+     */
+    private static long sample(byte[] row, int i, int bitDepth, int count) {
+        long value = 0;
+        for (int s = 0; s < count; s++) {
+            value = bitDepth == 16 ? value << 16 | readShort(row, i + s * 2) : value << 8 | row[i + s] & 0xFF;
+        }
+        return value;
+    }
+
+    private static int[] premultiplied(int[] palette, byte[] transparency) {
+        int[] colors = palette.clone();
+        if (transparency != null) {
+            for (int i = 0; i < Math.min(colors.length, transparency.length); i++) {
+                int rgb = colors[i];
+                colors[i] = premultiply(transparency[i] & 0xFF, rgb >>> 16 & 0xFF, rgb >>> 8 & 0xFF, rgb & 0xFF);
+            }
+        }
+        return colors;
+    }
+
+    private static int premultiply(int a, int r, int g, int b) {
+        if (a == 0xFF) {
+            return 0xFF000000 | r << 16 | g << 8 | b;
+        }
+        if (a == 0) {
+            return 0;
+        }
+        return a << 24 | (r * a + 127) / 255 << 16 | (g * a + 127) / 255 << 8 | (b * a + 127) / 255;
+    }
+
+    private static boolean isSupported(int colorType, int bitDepth) {
+        switch (colorType) {
+            case GRAY:
+                return bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8 || bitDepth == 16;
+            case PALETTE:
+                return bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8;
+            case RGB:
+            case GRAY_ALPHA:
+            case RGB_ALPHA:
+                return bitDepth == 8 || bitDepth == 16;
+            default:
+                return false;
+        }
+    }
+
+    private static int channels(int colorType) {
+        switch (colorType) {
+            case RGB:
+                return 3;
+            case GRAY_ALPHA:
+                return 2;
+            case RGB_ALPHA:
+                return 4;
+            default:
+                return 1;
+        }
+    }
+
+    private static void skip(DataInputStream data, int count) throws IOException {
+        for (int left = count; left > 0; ) {
+            int skipped = data.skipBytes(left);
+            if (skipped == 0) {
+                throw new EOFException("The PNG image ends early.");
+            }
+            left -= skipped;
+        }
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16
+               | (data[offset + 2] & 0xFF) << 8 | data[offset + 3] & 0xFF;
+    }
+
+    private static int readShort(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 8 | data[offset + 1] & 0xFF;
+    }
+
+    private static final class Header {
+
+        final int width;
+        final int height;
+        final int bitDepth;
+        final int colorType;
+
+        Header(DataInputStream data) throws IOException {
+            width = data.readInt();
+            height = data.readInt();
+            bitDepth = data.readUnsignedByte();
+            colorType = data.readUnsignedByte();
+            skip(data, 3);
+            if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE
+                || !isSupported(colorType, bitDepth)) {
+                throw new IOException("The PNG image has an invalid or unsupported header.");
+            }
+        }
+    }
+
+    /**
+     * The contents of consecutive IDAT chunks as one stream, ending at the
+     * first chunk of another type.
+     */
+    private static final class ImageData extends InputStream {
+
+        private final DataInputStream data;
+        private int remaining;
+        private boolean done;
+
+        ImageData(DataInputStream data, int firstLength) {
+            this.data = data;
+            this.remaining = firstLength;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            while (remaining == 0) {
+                if (done) {
+                    return -1;
+                }
+                PngDecoder.skip(data, 4);
+                remaining = data.readInt();
+                if (data.readInt() != IDAT) {
+                    done = true;
+                    remaining = 0;
+                    return -1;
+                }
+            }
+            int n = data.read(b, off, Math.min(len, remaining));
+            if (n == -1) {
+                throw new EOFException("The PNG image data ends early.");
+            }
+            remaining -= n;
+            return n;
+        }
+    }
+}
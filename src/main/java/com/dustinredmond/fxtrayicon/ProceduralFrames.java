@@ -0,0 +1,122 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.ref.SoftReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * Frames that are drawn by a function of the frame index, such as a
+ * spinner or a pulsing dot. Nothing is drawn until the animation plays.
+ * Each frame is drawn on the executor the first time it is asked for,
+ * scaled to the icon size, and kept for the next loop. Frames are held
+ * through soft references, so the garbage collector may drop them when
+ * memory runs low and they are simply drawn again.
+ */
+final class ProceduralFrames implements FrameSource {
+
+    private final IntFunction<BufferedImage> generator;
+    private final int frameCount;
+    private final int width;
+    private final int height;
+    private final IconScaler scaler;
+    private final Executor executor;
+    private final AtomicReferenceArray<SoftReference<Image>> cache;
+    private final Set<Integer> drawing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong drawn = new AtomicLong();
+
+    /**
+     * @param generator  draws the frame with the given index
+     * @param frameCount the number of frames
+     * @param width      the width frames are scaled to
+     * @param height     the height frames are scaled to
+     * @param scaler     how frames are scaled
+     * @param executor   draws the frames, never the thread that shows them
+     */
+    ProceduralFrames(IntFunction<BufferedImage> generator, int frameCount, int width, int height, IconScaler scaler,
+                     Executor executor) {
+        if (frameCount < 1) {
+            throw new IllegalArgumentException("A generated animation needs at least one frame.");
+        }
+        this.generator = generator;
+        this.frameCount = frameCount;
+        this.width = width;
+        this.height = height;
+        this.scaler = scaler;
+        this.executor = executor;
+        this.cache = new AtomicReferenceArray<>(frameCount);
+    }
+
+    @Override
+    public int size() {
+        return frameCount;
+    }
+
+    @Override
+    public Image get(int index) {
+        SoftReference<Image> reference = cache.get(index);
+        Image frame = reference == null ? null : reference.get();
+        if (frame == null) {
+            prefetch(index);
+        }
+        return frame;
+    }
+
+    @Override
+    public void prefetch(int index) {
+        SoftReference<Image> reference = cache.get(index);
+        if (reference != null && reference.get() != null || !drawing.add(index)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                BufferedImage frame = generator.apply(index);
+                if (frame != null) {
+                    Image scaled = ImageUtils.rasterize(frame, width, height, scaler);
+                    // a frame the generator drew at the icon size is its own, it may draw over it again
+                    cache.set(index, new SoftReference<>(scaled == frame ? scaled : IconDeduplicator.intern(scaled)));
+                    drawn.incrementAndGet();
+                }
+            }
+            finally {
+                drawing.remove(index);
+            }
+        });
+    }
+
+    /**
+     * @return how many times a frame has been drawn, which is more than
+     * the number of frames once frames were dropped under memory pressure
+     */
+    long getDrawnCount() {
+        return drawn.get();
+    }
+}
@@ -0,0 +1,402 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Frames that are read from disk while the animation plays, for long
+ * animations that would take a lot of memory if every frame was decoded
+ * up front. Only a small window of frames is held at any time: the one
+ * being shown and the next ones, which are decoded and scaled on the
+ * executor ahead of time. Memory use does not grow with the number of
+ * frames.
+ * <p>
+ * A frame that is not ready when it is due counts as a prefetch miss and
+ * is skipped, the animation stays in phase.
+ * <p>
+ * A file the frames are read from is only open while they are read, it is
+ * closed when the animation stops and opened again when it plays.
+ */
+final class StreamingFrames implements FrameSource, Closeable {
+
+    /**
+     * The number of frames held by default, the one shown and two ahead.
+     */
+    static final int DEFAULT_WINDOW = 3;
+
+    /**
+     * Decodes one frame at its full size, null if it could not be read.
+     */
+    interface Decoder {
+        BufferedImage decode(int index);
+
+        /**
+         * Lets frames be read again after close().
+         */
+        default void open() {
+        }
+
+        /**
+         * Closes what frames are read from, frames that are decoded
+         * afterwards are null until open() is called.
+         */
+        default void close() {
+        }
+    }
+
+    private static final class Frame {
+
+        private final int index;
+        private final Image image;
+
+        private Frame(int index, Image image) {
+            this.index = index;
+            this.image = image;
+        }
+    }
+
+    private final Decoder decoder;
+    private final int frameCount;
+    private final int width;
+    private final int height;
+    private final IconScaler scaler;
+    private final Executor executor;
+    private final AtomicReferenceArray<Frame> window;
+    private final Set<Integer> loading = ConcurrentHashMap.newKeySet();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong decoded = new AtomicLong();
+    private volatile int wanted;
+    private volatile int direction = 1;
+
+    /**
+     * @param decoder    reads the frame with the given index
+     * @param frameCount the number of frames
+     * @param width      the width frames are scaled to
+     * @param height     the height frames are scaled to
+     * @param scaler     how frames are scaled
+     * @param windowSize the number of frames held at once, at least 2
+     * @param executor   reads the frames, never the thread that shows them
+     */
+    StreamingFrames(Decoder decoder, int frameCount, int width, int height, IconScaler scaler, int windowSize,
+                    Executor executor) {
+        if (frameCount < 1) {
+            throw new IllegalArgumentException("A streamed animation needs at least one frame.");
+        }
+        if (windowSize < 2) {
+            throw new IllegalArgumentException("A streamed animation needs to hold at least 2 frames.");
+        }
+        this.decoder = decoder;
+        this.frameCount = frameCount;
+        this.width = width;
+        this.height = height;
+        this.scaler = scaler;
+        this.executor = executor;
+        this.window = new AtomicReferenceArray<>(Math.min(windowSize, frameCount));
+    }
+
+    /**
+     * Streams the frames from a list of image files, one frame per file.
+     *
+     * @param onError receives a file that could not be read, may be null
+     */
+    static StreamingFrames of(List<File> files, int width, int height, IconScaler scaler, int windowSize,
+                              Executor executor, BiConsumer<File, Exception> onError) {
+        List<File> sources = new ArrayList<>(files);
+        return new StreamingFrames(index -> {
+            File file = sources.get(index);
+            try (InputStream is = new FileInputStream(file)) {
+                return read(is);
+            }
+            catch (IOException e) {
+                report(onError, file, e);
+                return null;
+            }
+        }, sources.size(), width, height, scaler, windowSize, executor);
+    }
+
+    /**
+     * Streams the frames from the image files in a zip file, in the order
+     * of their names. The zip file is open from the first frame that is
+     * read until close() is called.
+     *
+     * @param onError receives the zip file if one of its frames could not be read, may be null
+     */
+    static StreamingFrames ofZip(File zip, int width, int height, IconScaler scaler, int windowSize,
+                                 Executor executor, BiConsumer<File, Exception> onError) {
+        ZipDecoder decoder = new ZipDecoder(zip, onError);
+        return new StreamingFrames(decoder, decoder.names.size(), width, height, scaler, windowSize, executor);
+    }
+
+    private static final class ZipDecoder implements Decoder {
+
+        private final File zip;
+        private final List<String> names;
+        private final BiConsumer<File, Exception> onError;
+        private ZipFile zipFile;
+        private boolean closed;
+
+        private ZipDecoder(File zip, BiConsumer<File, Exception> onError) {
+            this.zip = zip;
+            this.onError = onError;
+            try (ZipFile zipFile = new ZipFile(zip)) {
+                this.names = zipFile.stream()
+                        .filter(entry -> !entry.isDirectory())
+                        .map(ZipEntry::getName)
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Unable to open the zip file at the provided path: " + zip.getAbsolutePath(), e);
+            }
+        }
+
+        @Override
+        public BufferedImage decode(int index) {
+            ZipFile file = null;
+            try {
+                file = zipFile();
+                if (file == null) {
+                    return null;
+                }
+                ZipEntry entry = file.getEntry(names.get(index));
+                if (entry == null) {
+                    throw new IOException("The zip file no longer holds " + names.get(index));
+                }
+                try (InputStream is = file.getInputStream(entry)) {
+                    return read(is);
+                }
+            }
+            catch (IOException | IllegalStateException e) {
+                // a zip file that was closed while the frame was read is no error
+                if (file == null || isCurrent(file)) {
+                    report(onError, zip, e);
+                }
+                return null;
+            }
+        }
+
+        private synchronized ZipFile zipFile() throws IOException {
+            if (zipFile == null && !closed) {
+                zipFile = new ZipFile(zip);
+            }
+            return zipFile;
+        }
+
+        @Override
+        public synchronized void open() {
+            closed = false;
+        }
+
+        private synchronized boolean isCurrent(ZipFile file) {
+            return zipFile == file;
+        }
+
+        private synchronized boolean isOpen() {
+            return zipFile != null;
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            if (zipFile != null) {
+                try {
+                    zipFile.close();
+                }
+                catch (IOException ignored) {
+                    // nothing is read from it anymore
+                }
+                zipFile = null;
+            }
+        }
+    }
+
+    private static BufferedImage read(InputStream is) throws IOException {
+        BufferedImage image = IconDecoders.read(is);
+        if (image == null) {
+            throw new IOException("Not an image file, or it is in an unsupported format.");
+        }
+        return image;
+    }
+
+    private static void report(BiConsumer<File, Exception> onError, File file, Exception e) {
+        if (onError != null) {
+            onError.accept(file, e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return frameCount;
+    }
+
+    @Override
+    public Image get(int index) {
+        Image image = held(index);
+        if (image == null) {
+            prefetch(index);
+            // an executor that runs on the calling thread has read it by now
+            image = held(index);
+            if (image == null) {
+                misses.incrementAndGet();
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Reads the given frame and the ones after it, in the direction the
+     * animation is playing, until the window is full.
+     */
+    @Override
+    public void prefetch(int index) {
+        int step = Math.floorMod(index - wanted, frameCount);
+        if (step == 1) {
+            direction = 1;
+        }
+        else if (step == frameCount - 1) {
+            direction = -1;
+        }
+        wanted = index;
+        decoder.open();
+        // one slot stays with the frame that is shown now
+        int ahead = Math.max(1, window.length() - 1);
+        for (int i = 0; i < ahead; i++) {
+            load(Math.floorMod(index + i * direction, frameCount));
+        }
+    }
+
+    private void load(int index) {
+        if (isHeld(index) || !loading.add(index)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                if (distance(index) < window.length() && !isHeld(index)) {
+                    BufferedImage image = decoder.decode(index);
+                    if (image != null) {
+                        decoded.incrementAndGet();
+                        store(new Frame(index, IconDeduplicator.intern(ImageUtils.rasterize(image, width, height, scaler))));
+                    }
+                }
+            }
+            finally {
+                loading.remove(index);
+            }
+        });
+    }
+
+    private boolean isHeld(int index) {
+        return held(index) != null;
+    }
+
+    private Image held(int index) {
+        for (int slot = 0; slot < window.length(); slot++) {
+            Frame frame = window.get(slot);
+            if (frame != null && frame.index == index) {
+                return frame.image;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Puts a frame in place of the frame that is needed last, unless the
+     * new frame is needed even later than that.
+     */
+    private void store(Frame frame) {
+        while (true) {
+            int victim = 0;
+            int victimDistance = -1;
+            for (int slot = 0; slot < window.length(); slot++) {
+                Frame held = window.get(slot);
+                int distance = held == null ? Integer.MAX_VALUE : distance(held.index);
+                if (distance > victimDistance) {
+                    victim = slot;
+                    victimDistance = distance;
+                }
+            }
+            Frame held = window.get(victim);
+            if (victimDistance <= distance(frame.index)) {
+                return;
+            }
+            if (window.compareAndSet(victim, held, frame)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return how many steps ahead of the frame wanted last the given frame is
+     */
+    private int distance(int index) {
+        return Math.floorMod((index - wanted) * direction, frameCount);
+    }
+
+    /**
+     * Closes the file the frames are read from, if any, also for frames
+     * that are being read. Prefetching a frame opens it again.
+     */
+    @Override
+    public void close() {
+        decoder.close();
+    }
+
+    /**
+     * @return true while a file the frames are read from is open
+     */
+    boolean isOpen() {
+        return decoder instanceof ZipDecoder && ((ZipDecoder) decoder).isOpen();
+    }
+
+    /**
+     * @return the number of frames that were not ready when they were due
+     */
+    long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of frames that were read from disk
+     */
+    long getDecodedCount() {
+        return decoded.get();
+    }
+}
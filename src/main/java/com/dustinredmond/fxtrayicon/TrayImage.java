@@ -0,0 +1,82 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import java.awt.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Changes the image of the tray icon. An icon with the same pixels as the
+ * one shown is left out, since the tray host repaints on every change,
+ * except for an image whose pixels change later, such as the image of an
+ * IconBridge: its later changes are only pushed while that very image is
+ * the one shown.
+ */
+final class TrayImage {
+
+    private final Supplier<Image> shown;
+    private final Consumer<Image> tray;
+
+    /**
+     * @param shown returns the image the tray icon shows
+     * @param tray  sets the image of the tray icon
+     */
+    TrayImage(Supplier<Image> shown, Consumer<Image> tray) {
+        this.shown = shown;
+        this.tray = tray;
+    }
+
+    /**
+     * Shows an icon unless the tray icon shows the same pixels already.
+     * @return false if the icon was left out
+     */
+    boolean show(Image image) {
+        if (IconDeduplicator.samePixels(image, shown.get())) {
+            return false;
+        }
+        tray.accept(image);
+        return true;
+    }
+
+    /**
+     * Shows an image whose pixels change later, even when the tray icon
+     * shows the same pixels already.
+     */
+    void showLive(Image image) {
+        if (shown.get() != image) {
+            tray.accept(image);
+        }
+    }
+
+    /**
+     * Pushes the changed pixels of a live image, unless an animation, a
+     * fade or a blinking icon is shown instead.
+     */
+    void refresh(Image image) {
+        if (shown.get() == image) {
+            tray.accept(image);
+        }
+    }
+}
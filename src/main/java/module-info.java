@@ -9,4 +9,6 @@ module com.dustinredmond.fxtrayicon{
 
 
     exports com.dustinredmond.fxtrayicon;
+
+    uses com.dustinredmond.fxtrayicon.IconDecoder;
 }
@@ -0,0 +1,89 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares how often the animation scheduler wakes up when every tray icon
+ * has a timer of its own, started whenever that icon happened to start,
+ * with all icons sharing one AnimationClock. Frames are counted but not
+ * shown, so no tray or JavaFX toolkit is needed. Run the main method,
+ * optionally passing the number of icons and the seconds to run for.
+ */
+public class AnimationClockBenchmark {
+
+    private static final int FRAME_DURATION_MS = 100;
+
+    public static void main(String[] args) throws InterruptedException {
+        int icons = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        List<AnimationClock> ownClocks = new ArrayList<>();
+        List<Animation> animations = new ArrayList<>();
+        AtomicLong ownFrames = new AtomicLong();
+        for (int i = 0; i < icons; i++) {
+            // icons start at unrelated moments, just as per-icon Timelines do
+            Thread.sleep(ThreadLocalRandom.current().nextInt(FRAME_DURATION_MS));
+            AnimationClock clock = new AnimationClock("Icon clock " + i, Thread.NORM_PRIORITY, Runnable::run, () -> true);
+            ownClocks.add(clock);
+            animations.add(animation(clock, ownFrames));
+            animations.get(i).play();
+        }
+        Thread.sleep(seconds * 1000L);
+        animations.forEach(Animation::stop);
+        long ownWakeUps = ownClocks.stream().mapToLong(AnimationClock::getWakeUpCount).sum();
+
+        AnimationClock shared = new AnimationClock("Shared clock", Thread.NORM_PRIORITY, Runnable::run, () -> true);
+        AtomicLong sharedFrames = new AtomicLong();
+        for (int i = 0; i < icons; i++) {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(FRAME_DURATION_MS));
+            animations.add(animation(shared, sharedFrames));
+            animations.get(icons + i).play();
+        }
+        Thread.sleep(seconds * 1000L);
+        animations.forEach(Animation::stop);
+        long sharedWakeUps = shared.getWakeUpCount();
+
+        System.out.printf("%d icons, %d ms frames, %d s each%n", icons, FRAME_DURATION_MS, seconds);
+        System.out.printf("one timer per icon: %6d wake-ups, %6d frames%n", ownWakeUps, ownFrames.get());
+        System.out.printf("shared clock:       %6d wake-ups, %6d frames%n", sharedWakeUps, sharedFrames.get());
+        System.out.printf("wake-ups saved:     %5.1f %%%n", 100.0 - 100.0 * sharedWakeUps / Math.max(1, ownWakeUps));
+        System.exit(0);
+    }
+
+    private static Animation animation(AnimationClock clock, AtomicLong frameCounter) {
+        List<Image> frames = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            frames.add(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE));
+        }
+        return new Animation(frame -> frameCounter.incrementAndGet(), frames,
+                new FrameSequence(FRAME_DURATION_MS), clock);
+    }
+}
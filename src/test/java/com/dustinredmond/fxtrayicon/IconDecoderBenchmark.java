@@ -0,0 +1,107 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares how long the built-in PNG decoder and ImageIO take to decode
+ * typical icons of 16 to 256 pixels, and how many bytes each decode
+ * allocates, as measured by the JVM for the current thread. Only Java2D
+ * is needed, no tray or JavaFX toolkit. Run the main method, optionally
+ * passing the number of iterations.
+ */
+public class IconDecoderBenchmark {
+
+    private static final int[] ICON_SIZES = {16, 22, 32, 48, 64, 128, 256};
+
+    private interface Decode {
+        BufferedImage run(byte[] png) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        System.out.printf("%d iterations%n", iterations);
+        System.out.printf("%5s %8s %12s %12s %14s %14s%n", "size", "bytes",
+                "png us", "imageio us", "png alloc", "imageio alloc");
+        for (int size : ICON_SIZES) {
+            byte[] png = icon(size);
+            Decode lean = data -> PngDecoder.INSTANCE.decode(new ByteArrayInputStream(data));
+            Decode imageIO = data -> ImageIO.read(new ByteArrayInputStream(data));
+            long[] leanResult = measure(lean, png, iterations, threads);
+            long[] imageIOResult = measure(imageIO, png, iterations, threads);
+            System.out.printf("%5d %8d %12.1f %12.1f %14d %14d%n", size, png.length,
+                    leanResult[0] / 1e3, imageIOResult[0] / 1e3, leanResult[1], imageIOResult[1]);
+        }
+    }
+
+    /**
+     * @return nanoseconds and allocated bytes per decode
+     */
+    private static long[] measure(Decode decode, byte[] png, int iterations,
+                                  com.sun.management.ThreadMXBean threads) throws IOException {
+        for (int i = 0; i < iterations / 2; i++) {
+            decode.run(png);
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            decode.run(png);
+        }
+        long time = System.nanoTime() - start;
+        allocated = threads.getThreadAllocatedBytes(threadId) - allocated;
+        return new long[]{time / iterations, allocated / iterations};
+    }
+
+    private static byte[] icon(int size) throws IOException {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setPaint(new GradientPaint(0, 0, Color.ORANGE, size, size, Color.RED));
+            g.fill(new Ellipse2D.Double(1, 1, size - 2, size - 2));
+            g.setColor(Color.WHITE);
+            g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, size / 2));
+            g.drawString("9", size / 3, size * 2 / 3);
+        }
+        finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
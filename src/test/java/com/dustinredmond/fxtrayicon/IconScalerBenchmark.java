@@ -0,0 +1,97 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Compares how long each IconScaler takes to scale a large icon down to
+ * common tray icon sizes, and how far its output is from the area averaged
+ * icon, as the mean difference per color channel. Only Java2D is needed, no
+ * tray or JavaFX toolkit. Run the main method, optionally passing the size
+ * of the source image and the number of iterations.
+ */
+public class IconScalerBenchmark {
+
+    private static final int[] ICON_SIZES = {16, 22, 32, 48};
+
+    public static void main(String[] args) {
+        int sourceSize = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        BufferedImage source = source(sourceSize);
+
+        System.out.printf("%d px source, %d iterations%n", sourceSize, iterations);
+        System.out.printf("%-22s %5s %12s %12s%n", "scaler", "size", "ms per icon", "difference");
+        for (int size : ICON_SIZES) {
+            BufferedImage reference = ImageUtils.rasterize(source, size, size, IconScaler.AREA_AVERAGING);
+            for (IconScaler scaler : IconScaler.values()) {
+                BufferedImage icon = null;
+                for (int i = 0; i < iterations / 4; i++) {
+                    icon = ImageUtils.rasterize(source, size, size, scaler);
+                }
+                long start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    icon = ImageUtils.rasterize(source, size, size, scaler);
+                }
+                double ms = (System.nanoTime() - start) / 1e6 / iterations;
+                System.out.printf("%-22s %5d %12.3f %12.2f%n", scaler, size, ms, difference(reference, icon));
+            }
+        }
+    }
+
+    private static BufferedImage source(int size) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setPaint(new GradientPaint(0, 0, Color.RED, size, size, Color.BLUE));
+            g.fill(new Ellipse2D.Double(0, 0, size, size));
+            g.setColor(Color.WHITE);
+            g.setStroke(new BasicStroke(Math.max(1, size / 128f)));
+            for (int i = 0; i < size; i += size / 16) {
+                g.drawLine(i, 0, size - i, size);
+            }
+        }
+        finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static double difference(BufferedImage a, BufferedImage b) {
+        long sum = 0;
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                int pa = a.getRGB(x, y);
+                int pb = b.getRGB(x, y);
+                for (int shift = 0; shift < 32; shift += 8) {
+                    sum += Math.abs((pa >>> shift & 0xFF) - (pb >>> shift & 0xFF));
+                }
+            }
+        }
+        return sum / (4.0 * a.getWidth() * a.getHeight());
+    }
+}
@@ -0,0 +1,218 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Test;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+public class TestAnimatedImageReader {
+
+    private static final int[] COLORS = {0xFFFF0000, 0xFF00FF00, 0xFF0000FF};
+
+    @Test
+    public void testGIFFramesDelaysAndLoops() throws IOException {
+        AnimatedImageReader reader = AnimatedImageReader.read(new ByteArrayInputStream(gif()), 16, 16,
+                IconScaler.AREA_AVERAGING);
+        assertEquals(COLORS.length, reader.frames().size());
+        for (int i = 0; i < COLORS.length; i++) {
+            BufferedImage frame = (BufferedImage) reader.frames().get(i);
+            assertEquals(16, frame.getWidth());
+            assertEquals(COLORS[i], frame.getRGB(8, 8));
+        }
+        assertArrayEquals(new int[]{50, 50, 50}, reader.delays());
+        assertEquals(0, reader.loopCount());
+    }
+
+    @Test
+    public void testAPNGFramesAreComposedOntoTheCanvas() throws IOException {
+        AnimatedImageReader reader = AnimatedImageReader.read(new ByteArrayInputStream(apng()), 8, 8,
+                IconScaler.NEAREST);
+        assertEquals(2, reader.frames().size());
+        BufferedImage first = (BufferedImage) reader.frames().get(0);
+        BufferedImage second = (BufferedImage) reader.frames().get(1);
+        assertEquals(0xFF0000FF, first.getRGB(5, 5));
+        // the second frame only covers the middle and is drawn over the first
+        assertEquals(0xFF0000FF, second.getRGB(0, 0));
+        assertEquals(0xFFFF0000, second.getRGB(5, 5));
+        assertArrayEquals(new int[]{250, 100}, reader.delays());
+        assertEquals(3, reader.loopCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void testOtherFormatsAreRejected() throws IOException {
+        AnimatedImageReader.read(new ByteArrayInputStream("BM not an animation".getBytes(StandardCharsets.US_ASCII)),
+                16, 16, IconScaler.AREA_AVERAGING);
+    }
+
+    private static byte[] gif() throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            writer.prepareWriteSequence(null);
+            for (int i = 0; i < COLORS.length; i++) {
+                BufferedImage frame = filled(8, 8, COLORS[i]);
+                IIOMetadata metadata = writer.getDefaultImageMetadata(
+                        ImageTypeSpecifier.createFromRenderedImage(frame), null);
+                String format = metadata.getNativeMetadataFormatName();
+                IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+                IIOMetadataNode control = new IIOMetadataNode("GraphicControlExtension");
+                control.setAttribute("disposalMethod", "none");
+                control.setAttribute("userInputFlag", "FALSE");
+                control.setAttribute("transparentColorFlag", "FALSE");
+                control.setAttribute("delayTime", "5");
+                control.setAttribute("transparentColorIndex", "0");
+                root.appendChild(control);
+                if (i == 0) {
+                    IIOMetadataNode extensions = new IIOMetadataNode("ApplicationExtensions");
+                    IIOMetadataNode netscape = new IIOMetadataNode("ApplicationExtension");
+                    netscape.setAttribute("applicationID", "NETSCAPE");
+                    netscape.setAttribute("authenticationCode", "2.0");
+                    netscape.setUserObject(new byte[]{1, 0, 0});
+                    extensions.appendChild(netscape);
+                    root.appendChild(extensions);
+                }
+                metadata.setFromTree(format, root);
+                writer.writeToSequence(new IIOImage(frame, null, metadata), null);
+            }
+            writer.endWriteSequence();
+        }
+        finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * A blue 8x8 frame, then a red 4x4 frame in the middle of it.
+     */
+    private static byte[] apng() throws IOException {
+        byte[][] blue = chunks(filled(8, 8, 0xFF0000FF));
+        byte[][] red = chunks(filled(4, 4, 0xFFFF0000));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        chunk(out, "IHDR", blue[0]);
+        chunk(out, "acTL", ints(2, 3));
+        chunk(out, "fcTL", frameControl(0, 8, 8, 0, 0, 1, 4));
+        chunk(out, "IDAT", blue[1]);
+        chunk(out, "fcTL", frameControl(1, 4, 4, 2, 2, 1, 10));
+        ByteArrayOutputStream frameData = new ByteArrayOutputStream();
+        frameData.write(ints(2));
+        frameData.write(red[1]);
+        chunk(out, "fdAT", frameData.toByteArray());
+        chunk(out, "IEND", new byte[0]);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the IHDR and the IDAT data of the image written as a PNG
+     */
+    private static byte[][] chunks(BufferedImage image) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(png.toByteArray()));
+        in.skipBytes(8);
+        byte[] header = null;
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        while (true) {
+            int length = in.readInt();
+            byte[] type = new byte[4];
+            in.readFully(type);
+            byte[] body = new byte[length];
+            in.readFully(body);
+            in.skipBytes(4);
+            String name = new String(type, StandardCharsets.US_ASCII);
+            if (name.equals("IHDR")) {
+                header = body;
+            }
+            else if (name.equals("IDAT")) {
+                data.write(body);
+            }
+            else if (name.equals("IEND")) {
+                return new byte[][]{header, data.toByteArray()};
+            }
+        }
+    }
+
+    private static byte[] frameControl(int sequence, int width, int height, int x, int y,
+                                       int delayNumerator, int delayDenominator) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(data);
+        out.write(ints(sequence, width, height, x, y));
+        out.writeShort(delayNumerator);
+        out.writeShort(delayDenominator);
+        // no disposal, drawn over the canvas
+        out.writeByte(0);
+        out.writeByte(1);
+        return data.toByteArray();
+    }
+
+    private static byte[] ints(int... values) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(data);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+        return data.toByteArray();
+    }
+
+    private static void chunk(DataOutputStream out, String type, byte[] data) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        out.writeInt(data.length);
+        out.write(typeBytes);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private static BufferedImage filled(int width, int height, int argb) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+}
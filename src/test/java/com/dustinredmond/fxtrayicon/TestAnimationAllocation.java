@@ -0,0 +1,93 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Makes sure that advancing an animation by one frame does not allocate
+ * once the animation is warmed up, as it runs for as long as the
+ * application does.
+ */
+public class TestAnimationAllocation {
+
+    private static final int FRAMES = 12;
+    private static final int WARM_UP_TICKS = 200_000;
+    private static final int MEASURED_TICKS = 1_000_000;
+
+    private int framesShown;
+
+    @Test
+    public void testFrameAdvanceDoesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        List<Image> frames = new ArrayList<>();
+        for (int i = 0; i < FRAMES; i++) {
+            frames.add(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE));
+        }
+        Animation animation = new Animation(frame -> framesShown++, frames,
+                new FrameSequence(100));
+
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARM_UP_TICKS; i++) {
+            animation.updateImage();
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            animation.updateImage();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(WARM_UP_TICKS + MEASURED_TICKS, framesShown);
+        assertTrue("Advancing frames allocated " + allocated + " bytes over "
+                   + MEASURED_TICKS + " ticks", allocated / MEASURED_TICKS == 0);
+    }
+
+    @Test
+    public void testRepeatedFrameIsNotPushedAgain() {
+        Image same = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE);
+        List<Image> frames = new ArrayList<>();
+        frames.add(same);
+        frames.add(same);
+        frames.add(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE));
+        Animation animation = new Animation(frame -> framesShown++, frames,
+                new FrameSequence(100));
+        for (int i = 0; i < 6; i++) {
+            animation.updateImage();
+        }
+        assertEquals(4, framesShown);
+    }
+}
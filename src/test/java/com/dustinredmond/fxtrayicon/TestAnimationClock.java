@@ -0,0 +1,307 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class TestAnimationClock {
+
+    private final AnimationClock clock = new AnimationClock("Test clock", Thread.NORM_PRIORITY, Runnable::run, () -> true);
+
+    private static List<Image> frames(int count) {
+        List<Image> frames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            frames.add(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE));
+        }
+        return frames;
+    }
+
+    @Test
+    public void testFiniteLoopsStopOnLastFrame() throws InterruptedException {
+        List<Image> frames = frames(3);
+        List<Image> shown = new ArrayList<>();
+        Animation animation = new Animation(shown::add, frames,
+                new FrameSequence(20).setLoopCount(2), clock);
+        animation.play();
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!animation.isStopped() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(animation.isStopped());
+        assertEquals(6, shown.size());
+        assertSame(frames.get(2), shown.get(5));
+        assertEquals(0, clock.size());
+    }
+
+    @Test
+    public void testBackgroundDriverShowsFramesOnEventDispatchThread() throws InterruptedException {
+        List<Boolean> onEventDispatchThread = new ArrayList<>();
+        Animation animation = new Animation(frame -> onEventDispatchThread.add(EventQueue.isDispatchThread()),
+                frames(2), new FrameSequence(20).setLoopCount(1));
+        animation.setDriver(AnimationDriver.BACKGROUND);
+        animation.play();
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!animation.isStopped() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, onEventDispatchThread.size());
+        assertFalse(onEventDispatchThread.contains(false));
+    }
+
+    @Test
+    public void testSameDurationsShareWakeUps() throws InterruptedException {
+        Animation first = new Animation(frame -> { }, frames(4), new FrameSequence(50), clock);
+        Animation second = new Animation(frame -> { }, frames(4), new FrameSequence(50), clock);
+        first.play();
+        Thread.sleep(20);
+        second.play();
+        assertEquals(first.due(), second.due());
+        Thread.sleep(300);
+        first.stop();
+        second.stop();
+        assertEquals(0, clock.size());
+    }
+
+    @Test
+    public void testSuspendedAnimationResumesInPhase() throws InterruptedException {
+        List<Image> frames = frames(4);
+        List<Image> shown = new ArrayList<>();
+        Animation animation = new Animation(shown::add, frames, new FrameSequence(50), clock);
+        animation.play();
+        Thread.sleep(120);
+        animation.suspend(Animation.HIDDEN);
+        int shownBeforeSuspend = shown.size();
+        Thread.sleep(500);
+        assertTrue(animation.isRunning());
+        assertEquals(shownBeforeSuspend, shown.size());
+        assertEquals(0, clock.size());
+
+        animation.resume(Animation.HIDDEN);
+        // about ten frames were skipped, the first one after resuming is where the animation would be by now
+        assertTrue(animation.getSavedTicks() >= 8);
+        assertEquals(1, clock.size());
+        animation.stop();
+    }
+
+    @Test
+    public void testIdlePredicateSuspendsAnimation() throws InterruptedException {
+        boolean[] idle = {false};
+        List<Image> shown = new ArrayList<>();
+        Animation animation = new Animation(shown::add, frames(4), new FrameSequence(20), clock);
+        animation.setIdlePredicate(() -> idle[0]);
+        animation.play();
+        Thread.sleep(100);
+        idle[0] = true;
+        Thread.sleep(100);
+        int shownWhileIdle = shown.size();
+        Thread.sleep(200);
+        assertEquals(shownWhileIdle, shown.size());
+        assertTrue(animation.isRunning());
+        idle[0] = false;
+        Thread.sleep(800);
+        assertTrue(shown.size() > shownWhileIdle);
+        animation.stop();
+    }
+
+    @Test
+    public void testStoppingAnIdleAnimationEndsTheIdleWatch() throws InterruptedException {
+        Animation animation = new Animation(frame -> { }, frames(4), new FrameSequence(20), clock);
+        animation.setIdlePredicate(() -> true);
+        animation.play();
+        Thread.sleep(100);
+        assertTrue(animation.isWatchingIdle());
+        animation.stop();
+        assertFalse(animation.isWatchingIdle());
+        assertFalse(animation.isSuspended());
+    }
+
+    @Test
+    public void testHandOffEndsTheIdleWatch() throws InterruptedException {
+        boolean[] idle = {false};
+        Animation first = new Animation(frame -> { }, frames(4), new FrameSequence(20), clock);
+        Animation second = new Animation(frame -> { }, frames(4), new FrameSequence(20), clock);
+        first.setIdlePredicate(() -> idle[0]);
+        first.play();
+        Thread.sleep(60);
+        idle[0] = true;
+        Thread.sleep(60);
+        assertTrue(first.isWatchingIdle());
+        first.handOff(second::playFromStart, false);
+        idle[0] = false;
+        first.resume(Animation.IDLE);
+        Thread.sleep(100);
+        assertTrue(first.isStopped());
+        assertFalse(first.isWatchingIdle());
+        second.stop();
+    }
+
+    @Test
+    public void testSwitchingDriverCarriesOnMidAnimation() throws InterruptedException {
+        List<Image> frames = frames(8);
+        List<Image> shown = new CopyOnWriteArrayList<>();
+        Animation animation = new Animation(shown::add, frames, new FrameSequence(100), clock);
+        animation.play();
+        Thread.sleep(250);
+        animation.setDriver(AnimationDriver.BACKGROUND);
+        Thread.sleep(50);
+        int before = shown.size();
+        int last = frames.indexOf(shown.get(before - 1));
+        assertTrue(last > 0);
+        Thread.sleep(100);
+        animation.stop();
+        assertEquals(AnimationDriver.BACKGROUND, animation.getDriver());
+        assertEquals(0, clock.size());
+        assertTrue(shown.size() > before);
+        // the next step follows on, instead of starting over from the first frame
+        assertSame(frames.get(last + 1), shown.get(before));
+    }
+
+    @Test
+    public void testHandOffAtFrameBoundaryAndLoopEnd() throws InterruptedException {
+        List<Image> shown = new ArrayList<>();
+        List<Image> idleFrames = frames(4);
+        List<Image> transitionFrames = frames(3);
+        List<Image> errorFrames = frames(2);
+        Animation idle = new Animation(shown::add, idleFrames, new FrameSequence(20), clock);
+        Animation transition = new Animation(shown::add, transitionFrames, new FrameSequence(20), clock);
+        Animation error = new Animation(shown::add, errorFrames, new FrameSequence(20), clock);
+        idle.play();
+        Thread.sleep(50);
+        idle.handOff(() -> {
+            transition.playFromStart();
+            transition.handOff(error::playFromStart, true);
+        }, false);
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!error.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(30);
+        assertTrue(idle.isStopped());
+        assertTrue(transition.isStopped());
+        assertTrue(error.isRunning());
+        // the transition clip was played exactly once, from its first to its last frame
+        int first = shown.indexOf(transitionFrames.get(0));
+        assertEquals(transitionFrames, shown.subList(first, first + 3));
+        assertSame(errorFrames.get(0), shown.get(first + 3));
+        error.stop();
+    }
+
+    @Test
+    public void testControlFromAnyThreadIsCoalesced() throws Exception {
+        List<Image> shown = new ArrayList<>();
+        Animation animation = new Animation(shown::add, frames(4), new FrameSequence(20));
+        animation.setDriver(AnimationDriver.BACKGROUND);
+        CountDownLatch release = new CountDownLatch(1);
+        EventQueue.invokeLater(() -> {
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // the driver thread is busy, so none of these take effect yet
+        for (int i = 0; i < 1000; i++) {
+            animation.play();
+            assertTrue(animation.isRunning());
+            animation.stop();
+            assertTrue(animation.isStopped());
+        }
+        animation.playFromStart();
+        animation.play();
+        assertTrue(animation.isRunning());
+        release.countDown();
+        Thread.sleep(100);
+        EventQueue.invokeAndWait(() -> { });
+        assertTrue(animation.isRunning());
+        assertFalse(shown.isEmpty());
+        animation.stop();
+        EventQueue.invokeAndWait(() -> { });
+        int stoppedAt = shown.size();
+        Thread.sleep(100);
+        assertTrue(animation.isStopped());
+        assertEquals(stoppedAt, shown.size());
+    }
+
+    @Test
+    public void testActionAfterStopComesAfterLastFrame() throws Exception {
+        Image icon = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE);
+        List<Image> shown = new CopyOnWriteArrayList<>();
+        Animation animation = new Animation(shown::add, frames(4), new FrameSequence(5));
+        animation.setDriver(AnimationDriver.BACKGROUND);
+        animation.play();
+        Thread.sleep(50);
+        CountDownLatch release = blockEventDispatchThread();
+        // frames keep coming due while the driver thread is busy
+        Thread.sleep(50);
+        animation.stop(() -> shown.add(icon));
+        release.countDown();
+        Thread.sleep(100);
+        EventQueue.invokeAndWait(() -> { });
+        assertTrue(animation.isStopped());
+        assertSame(icon, shown.get(shown.size() - 1));
+        assertEquals(1, shown.stream().filter(frame -> frame == icon).count());
+    }
+
+    @Test
+    public void testActionAfterStopIsLeftOutWhenPlayedAgain() throws Exception {
+        Image icon = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE);
+        List<Image> shown = new CopyOnWriteArrayList<>();
+        Animation animation = new Animation(shown::add, frames(4), new FrameSequence(5));
+        animation.setDriver(AnimationDriver.BACKGROUND);
+        animation.play();
+        Thread.sleep(50);
+        CountDownLatch release = blockEventDispatchThread();
+        animation.stop(() -> shown.add(icon));
+        animation.play();
+        release.countDown();
+        Thread.sleep(100);
+        EventQueue.invokeAndWait(() -> { });
+        assertTrue(animation.isRunning());
+        assertFalse(shown.contains(icon));
+        animation.stop();
+    }
+
+    private static CountDownLatch blockEventDispatchThread() {
+        CountDownLatch release = new CountDownLatch(1);
+        EventQueue.invokeLater(() -> {
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return release;
+    }
+}
@@ -0,0 +1,113 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestAttention {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testBlinkAlternatesBetweenIconAndHighlight() {
+        BufferedImage icon = filled(16, 16, 0xFF000000);
+        FrameSource frames = FXTrayIcon.attentionFrames(icon, false);
+        List<Image> shown = new ArrayList<>();
+        Animation blink = new Animation(shown::add, frames, new FrameSequence(500));
+        for (int i = 0; i < 4; i++) {
+            blink.updateImage();
+        }
+        assertEquals(4, shown.size());
+        assertSame(icon, shown.get(0));
+        assertSame(shown.get(0), shown.get(2));
+        assertSame(shown.get(1), shown.get(3));
+        assertEquals(0xFF808080, ((BufferedImage) shown.get(1)).getRGB(8, 8));
+    }
+
+    @Test
+    public void testBlankBlinkShowsAnEmptyIcon() {
+        BufferedImage icon = filled(16, 16, 0xFFFF0000);
+        BufferedImage blank = (BufferedImage) FXTrayIcon.attentionFrames(icon, true).get(1);
+        assertEquals(0, blank.getRGB(8, 8));
+    }
+
+    @Test
+    public void testCancelStopsBlinking() throws InterruptedException {
+        AnimationClock clock = new AnimationClock("Test clock", Thread.NORM_PRIORITY, Runnable::run, () -> true);
+        List<Image> shown = new ArrayList<>();
+        Animation blink = new Animation(shown::add, FXTrayIcon.attentionFrames(filled(16, 16, 0xFF000000), false),
+                new FrameSequence(20), clock);
+        blink.playFromStart();
+        Thread.sleep(100);
+        blink.stop();
+        assertTrue(blink.isStopped());
+        assertEquals(0, clock.size());
+        int shownWhenCancelled = shown.size();
+        assertTrue(shownWhenCancelled > 1);
+        Thread.sleep(100);
+        assertEquals(shownWhenCancelled, shown.size());
+    }
+
+    @Test
+    public void testAtlasIconIsHighlightedFromItsOwnPixels() throws IOException {
+        BufferedImage sheet = new BufferedImage(32, 16, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = sheet.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, 16, 16);
+        g.setColor(Color.WHITE);
+        g.fillRect(16, 0, 16, 16);
+        g.dispose();
+        File file = folder.newFile("sheet.png");
+        ImageIO.write(sheet, "png", file);
+        IconAtlas atlas = IconAtlas.grid(file, 2, 1);
+
+        BufferedImage highlighted = ImageUtils.highlighted(atlas.getIcon(atlas.getNames().get(0)));
+        assertEquals(16, highlighted.getWidth());
+        assertEquals(0xFF808080, highlighted.getRGB(8, 8));
+        assertEquals(0xFFFFFFFF, ImageUtils.highlighted(atlas.getIcon(atlas.getNames().get(1))).getRGB(8, 8));
+    }
+
+    private static BufferedImage filled(int width, int height, int argb) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+}
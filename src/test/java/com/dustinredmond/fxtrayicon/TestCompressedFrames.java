@@ -0,0 +1,117 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestCompressedFrames {
+
+    private static final int SIZE = 22;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * A dot moving across a background, with the last frame repeated.
+     */
+    private static List<Image> frames() {
+        List<Image> frames = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            BufferedImage frame = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g = frame.createGraphics();
+            g.setColor(new Color(40, 80, 160));
+            g.fillRect(2, 2, SIZE - 4, SIZE - 4);
+            g.setColor(Color.ORANGE);
+            g.fillOval(i, 8, 5, 5);
+            g.dispose();
+            frames.add(frame);
+        }
+        frames.add(frames.get(frames.size() - 1));
+        return frames;
+    }
+
+    @Test
+    public void testFramesDecodeToTheOriginals() {
+        List<Image> originals = frames();
+        CompressedFrames frames = new CompressedFrames(originals);
+        int[] order = {0, 1, 2, 3, 12, 11, 19, 5, 20, 9, 9, 17, 18, 0};
+        for (int index : order) {
+            assertSamePixels((BufferedImage) originals.get(index), (BufferedImage) frames.get(index));
+        }
+        assertTrue("compression ratio " + (double) frames.getRawBytes() / frames.getStoredBytes(),
+                frames.getStoredBytes() * 4 < frames.getRawBytes());
+    }
+
+    @Test
+    public void testRepeatedFrameIsTheSameImage() {
+        CompressedFrames frames = new CompressedFrames(frames());
+        assertSame(frames.get(19), frames.get(20));
+    }
+
+    @Test
+    public void testAtlasFramesAreEncodedOnTheirOwn() throws IOException {
+        // atlas icons at the tray size are views into one shared sheet
+        BufferedImage sheet = new BufferedImage(SIZE * 4, SIZE, BufferedImage.TYPE_INT_ARGB);
+        Color[] colors = {Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW};
+        Graphics2D g = sheet.createGraphics();
+        for (int i = 0; i < colors.length; i++) {
+            g.setColor(colors[i]);
+            g.fillRect(i * SIZE + i, i, SIZE - 2 * i, SIZE - i);
+        }
+        g.dispose();
+        File file = folder.newFile("sheet.png");
+        ImageIO.write(sheet, "png", file);
+        IconAtlas atlas = IconAtlas.grid(file, 4, 1);
+
+        List<Image> originals = new ArrayList<>();
+        for (String name : atlas.getNames()) {
+            originals.add(atlas.getIcon(name));
+        }
+        CompressedFrames frames = new CompressedFrames(originals);
+        for (int i = 0; i < originals.size(); i++) {
+            assertSamePixels((BufferedImage) originals.get(i), (BufferedImage) frames.get(i));
+        }
+        assertNotSame(frames.get(0), frames.get(1));
+    }
+
+    private static void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BaseMultiResolutionImage;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestCrossfade {
+
+    @Test
+    public void testFramesEndWithTheTargetIcon() {
+        BufferedImage from = filled(0xFF000000);
+        BufferedImage to = filled(0xFFFFFFFF);
+        List<Image> frames = Crossfade.frames(from, to, 4);
+        assertEquals(4, frames.size());
+        assertSame(to, frames.get(3));
+        int middle = ((BufferedImage) frames.get(1)).getRGB(8, 8);
+        assertEquals(0xFF808080, middle);
+    }
+
+    @Test
+    public void testBlendIsCachedPerIconPair() {
+        Image a = IconDeduplicator.intern(filled(0xFFFF0000));
+        Image b = IconDeduplicator.intern(filled(0x00000000));
+        assertSame(Crossfade.frames(a, b, 5), Crossfade.frames(a, b, 5));
+        assertNotSame(Crossfade.frames(a, b, 5), Crossfade.frames(b, a, 5));
+    }
+
+    @Test
+    public void testMultiResolutionIconsAreCachedByTheirVariants() {
+        Image a = IconDeduplicator.intern(filled(0xFFFF0000));
+        Image b = IconDeduplicator.intern(filled(0xFF0000FF));
+        BufferedImage large = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB_PRE);
+        Image first = new BaseMultiResolutionImage(0, b, large);
+        Image second = new BaseMultiResolutionImage(0, b, large);
+        List<Image> fade = Crossfade.frames(a, first, 4);
+        List<Image> again = Crossfade.frames(a, second, 4);
+        assertSame(fade.get(1), again.get(1));
+        assertSame(first, fade.get(3));
+        assertSame(second, again.get(3));
+        assertEquals(0xFF800080, ((BufferedImage) fade.get(1)).getRGB(8, 8));
+    }
+
+    @Test
+    public void testSubImagesBlendTheirOwnPixels() {
+        BufferedImage sheet = new BufferedImage(32, 16, BufferedImage.TYPE_INT_ARGB_PRE);
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 32; x++) {
+                sheet.setRGB(x, y, x < 16 ? 0xFF000000 : 0xFFFFFFFF);
+            }
+        }
+        List<Image> frames = Crossfade.frames(sheet.getSubimage(0, 0, 16, 16),
+                sheet.getSubimage(16, 0, 16, 16), 2);
+        assertEquals(0xFF808080, ((BufferedImage) frames.get(0)).getRGB(8, 8));
+    }
+
+    @Test
+    public void testChangingIconIsBlendedAnew() {
+        Image from = IconDeduplicator.intern(filled(0xFF000000));
+        IconBridge bridge = new IconBridge(16, 16);
+        fill(bridge, Color.WHITE);
+        List<Image> first = Crossfade.frames(from, bridge.awtImage(), 2);
+        fill(bridge, Color.RED);
+        List<Image> second = Crossfade.frames(from, bridge.awtImage(), 2);
+        assertEquals(0xFF808080, ((BufferedImage) first.get(0)).getRGB(8, 8));
+        assertEquals(0xFF800000, ((BufferedImage) second.get(0)).getRGB(8, 8));
+
+        // and so is a fade away from it
+        List<Image> back = Crossfade.frames(bridge.awtImage(), from, 2);
+        fill(bridge, Color.WHITE);
+        assertNotSame(back, Crossfade.frames(bridge.awtImage(), from, 2));
+    }
+
+    @Test
+    public void testFrameCount() {
+        assertEquals(1, Crossfade.frameCount(0));
+        assertEquals(10, Crossfade.frameCount(400));
+    }
+
+    private static void fill(IconBridge bridge, Color color) {
+        Graphics2D g = bridge.createGraphics();
+        try {
+            g.setColor(color);
+            g.fillRect(0, 0, 16, 16);
+        }
+        finally {
+            g.dispose();
+        }
+        bridge.changed();
+    }
+
+    private static BufferedImage filled(int argb) {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE);
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+}
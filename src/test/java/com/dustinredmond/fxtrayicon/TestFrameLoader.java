@@ -0,0 +1,131 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TestFrameLoader {
+
+    private static final int FRAMES = 12;
+
+    private static List<Integer> sources() {
+        List<Integer> sources = new ArrayList<>();
+        for (int i = 0; i < FRAMES; i++) {
+            sources.add(i);
+        }
+        return sources;
+    }
+
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Image load(int index) {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE);
+        image.setRGB(0, 0, 0xFF000000 | index);
+        return image;
+    }
+
+    @Test
+    public void testFramesKeepTheirOrder() {
+        List<Image> frames = FrameLoader.loadFrames(sources(), index -> {
+            // later frames finish first
+            sleep(FRAMES - index);
+            return load(index);
+        }, ForkJoinPool.commonPool(), 4, null);
+        assertEquals(FRAMES, frames.size());
+        for (int i = 0; i < FRAMES; i++) {
+            assertEquals(0xFF000000 | i, ((BufferedImage) frames.get(i)).getRGB(0, 0));
+        }
+    }
+
+    @Test
+    public void testFailedFramesAreReportedAndLeftOut() {
+        Map<Integer, Exception> failed = new HashMap<>();
+        List<Image> frames = FrameLoader.loadFrames(sources(), index -> {
+            if (index % 5 == 0) {
+                throw new IllegalStateException("bad frame " + index);
+            }
+            return load(index);
+        }, ForkJoinPool.commonPool(), 4, (index, e) -> failed.put(index, e));
+        assertEquals(FRAMES - 3, frames.size());
+        assertEquals(3, failed.size());
+        assertTrue(failed.containsKey(0) && failed.containsKey(5) && failed.containsKey(10));
+    }
+
+    @Test
+    public void testFailuresWithoutHandlerNameEveryFrame() {
+        try {
+            FrameLoader.loadFrames(sources(), index -> {
+                if (index == 3 || index == 7) {
+                    throw new IllegalStateException("bad frame " + index);
+                }
+                return load(index);
+            }, null, 4, null);
+            fail();
+        }
+        catch (IllegalStateException e) {
+            assertTrue(e.getMessage().endsWith("3, 7"));
+            assertEquals(1, e.getSuppressed().length);
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testExecutorThatNeverRunsWorkers() {
+        List<Image> frames = FrameLoader.loadFrames(sources(), TestFrameLoader::load, task -> { }, 4, null);
+        assertEquals(FRAMES, frames.size());
+    }
+
+    @Test(timeout = 5000)
+    public void testCalledFromTheOnlyThreadOfItsExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Image>> frames = executor.submit(() ->
+                    FrameLoader.loadFrames(sources(), TestFrameLoader::load, executor, 4, null));
+            assertEquals(FRAMES, frames.get(4, TimeUnit.SECONDS).size());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
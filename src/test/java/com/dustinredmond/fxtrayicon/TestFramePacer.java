@@ -0,0 +1,64 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class TestFramePacer {
+
+    @Test
+    public void testWaitingFrameIsReplacedByNewest() throws Exception {
+        List<Image> shown = new ArrayList<>();
+        FramePacer pacer = new FramePacer(shown::add);
+        CountDownLatch release = new CountDownLatch(1);
+        // keep the Event Dispatch Thread busy, like a tray host that is slow to repaint
+        EventQueue.invokeLater(() -> {
+            try {
+                release.await();
+            }
+            catch (InterruptedException ignored) {
+            }
+        });
+        Image newest = null;
+        for (int i = 0; i < 5; i++) {
+            newest = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE);
+            pacer.push(newest);
+        }
+        release.countDown();
+        EventQueue.invokeAndWait(() -> { });
+
+        assertEquals(1, shown.size());
+        assertSame(newest, shown.get(0));
+        assertEquals(4, pacer.getDroppedFrameCount());
+        assertTrue(pacer.getAverageLatencyMillis() > 0);
+    }
+}
@@ -0,0 +1,78 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestFrameSequence {
+
+    @Test
+    public void testPlaybackOrder() {
+        assertArrayEquals(new int[]{0, 1, 2, 3}, new FrameSequence(100).steps(4));
+        assertArrayEquals(new int[]{3, 2, 1, 0},
+                new FrameSequence(100).setPlayback(FrameSequence.Playback.REVERSE).steps(4));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 2, 1},
+                new FrameSequence(100).setPlayback(FrameSequence.Playback.PING_PONG).steps(4));
+        assertArrayEquals(new int[]{0, 1},
+                new FrameSequence(100).setPlayback(FrameSequence.Playback.PING_PONG).steps(2));
+    }
+
+    @Test
+    public void testPingPongSharesFrames() {
+        List<Image> frames = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            frames.add(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE));
+        }
+        List<Image> shown = new ArrayList<>();
+        Animation animation = new Animation(shown::add, frames,
+                new FrameSequence(100).setPlayback(FrameSequence.Playback.PING_PONG));
+        for (int i = 0; i < 5; i++) {
+            animation.updateImage();
+        }
+        assertSame(frames.get(0), shown.get(0));
+        assertSame(frames.get(2), shown.get(2));
+        assertSame(frames.get(1), shown.get(3));
+        assertSame(frames.get(0), shown.get(4));
+    }
+
+    @Test
+    public void testFrameDurations() {
+        FrameSequence sequence = new FrameSequence(100).setFrameDuration(2, 1500);
+        assertEquals(100, sequence.getFrameDuration(0));
+        assertEquals(1500, sequence.getFrameDuration(2));
+        assertEquals(FrameSequence.INDEFINITE, sequence.getLoopCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLoopCount() {
+        new FrameSequence(100).setLoopCount(0);
+    }
+}
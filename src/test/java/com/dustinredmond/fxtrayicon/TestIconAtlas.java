@@ -0,0 +1,110 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TestIconAtlas {
+
+    private static final int[] COLORS = {0xFFFF0000, 0xFF00FF00, 0xFF0000FF, 0xFFFFFFFF};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testGridCellsAreNamedRowByRow() throws IOException {
+        IconAtlas atlas = IconAtlas.grid(sheet(), 2, 2);
+        assertEquals(Arrays.asList("0", "1", "2", "3"), atlas.getNames());
+        for (int i = 0; i < COLORS.length; i++) {
+            BufferedImage icon = atlas.getIcon(String.valueOf(i));
+            assertEquals(16, icon.getWidth());
+            assertEquals(COLORS[i], icon.getRGB(8, 8));
+        }
+    }
+
+    @Test
+    public void testIconsShareThePixelsOfTheSheet() throws IOException {
+        IconAtlas atlas = IconAtlas.grid(sheet(), 2, 2);
+        BufferedImage first = atlas.getIcon("0");
+        BufferedImage last = atlas.getIcon("3");
+        assertEquals(BufferedImage.TYPE_INT_ARGB_PRE, first.getType());
+        assertSame(first.getRaster().getDataBuffer(), last.getRaster().getDataBuffer());
+        assertEquals(atlas.region("1"), atlas.region("1"));
+        assertNotEquals(atlas.region("1"), atlas.region("2"));
+    }
+
+    @Test
+    public void testPropertiesKeepTheirOrder() throws IOException {
+        File properties = properties("busy = 16, 16, 16, 16\nidle = 0, 0, 16, 16\nerror = 16, 0, 16, 16\n");
+        IconAtlas atlas = IconAtlas.fromProperties(sheet(), properties);
+        assertEquals(Arrays.asList("busy", "idle", "error"), atlas.getNames());
+        assertEquals(COLORS[3], atlas.getIcon("busy").getRGB(0, 0));
+        assertEquals(COLORS[1], atlas.getIcon("error").getRGB(0, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIconOutsideTheSheetIsRejected() throws IOException {
+        IconAtlas.fromProperties(sheet(), properties("wide = 0, 0, 33, 16\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedRegionIsRejected() throws IOException {
+        IconAtlas.fromProperties(sheet(), properties("idle = 0, 0, 16\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownIconIsRejected() throws IOException {
+        IconAtlas.grid(sheet(), 2, 2).getIcon("4");
+    }
+
+    private File sheet() throws IOException {
+        BufferedImage sheet = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 32; y++) {
+            for (int x = 0; x < 32; x++) {
+                sheet.setRGB(x, y, COLORS[y / 16 * 2 + x / 16]);
+            }
+        }
+        File file = new File(folder.getRoot(), "sheet.png");
+        ImageIO.write(sheet, "png", file);
+        return file;
+    }
+
+    private File properties(String text) throws IOException {
+        File file = new File(folder.getRoot(), "sheet.properties");
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.ISO_8859_1));
+        return file;
+    }
+}
@@ -0,0 +1,105 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestIconBridge {
+
+    @Test
+    public void testJava2DDrawingIsSharedWithoutCopy() {
+        IconBridge bridge = new IconBridge(16, 16);
+        List<BufferedImage> shown = new ArrayList<>();
+        bridge.addListener(shown::add);
+
+        Graphics2D g = bridge.createGraphics();
+        try {
+            g.setColor(Color.RED);
+            g.fillRect(0, 0, 16, 16);
+        }
+        finally {
+            g.dispose();
+        }
+        bridge.changed();
+
+        assertEquals(1, shown.size());
+        assertSame(bridge.awtImage(), shown.get(0));
+        // the JavaFX side reads the very same ints
+        assertEquals(0xFFFF0000, bridge.pixelBuffer().getBuffer().get(5 * 16 + 5));
+        bridge.pixelBuffer().getBuffer().put(0, 0xFF0000FF);
+        assertEquals(0xFF0000FF, shown.get(0).getRGB(0, 0));
+    }
+
+    @Test
+    public void testRendersReachTheTrayAfterAnIconWithTheSamePixels() {
+        Image[] shown = {new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE)};
+        List<Image> pushed = new ArrayList<>();
+        TrayImage tray = new TrayImage(() -> shown[0], image -> {
+            shown[0] = image;
+            pushed.add(image);
+        });
+        IconBridge bridge = new IconBridge(16, 16);
+        bridge.addListener(tray::refresh);
+
+        // both are empty, so the bridge would be left out as an ordinary icon
+        assertFalse(tray.show(bridge.awtImage()));
+        tray.showLive(bridge.awtImage());
+        assertSame(bridge.awtImage(), shown[0]);
+
+        Graphics2D g = bridge.createGraphics();
+        try {
+            g.setColor(Color.RED);
+            g.fillRect(0, 0, 16, 16);
+        }
+        finally {
+            g.dispose();
+        }
+        bridge.changed();
+        assertEquals(2, pushed.size());
+        assertSame(bridge.awtImage(), pushed.get(1));
+    }
+
+    @Test
+    public void testRendersWaitWhileSomethingElseIsShown() {
+        Image[] shown = {new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE)};
+        List<Image> pushed = new ArrayList<>();
+        TrayImage tray = new TrayImage(() -> shown[0], pushed::add);
+        IconBridge bridge = new IconBridge(16, 16);
+        bridge.addListener(tray::refresh);
+        bridge.changed();
+        assertTrue(pushed.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyIconIsRejected() {
+        new IconBridge(0, 16);
+    }
+}
@@ -0,0 +1,157 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+
+import static org.junit.Assert.*;
+
+public class TestIconCache {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSourceIsDecodedOnceForAllSizes() throws IOException {
+        IconCache.clear();
+        File file = folder.newFile("icon.png");
+        ImageIO.write(new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB), "png", file);
+        int[] decoded = new int[1];
+        IconCache.Decoder decoder = () -> {
+            decoded[0]++;
+            return ImageIO.read(file);
+        };
+
+        Image small = IconCache.get(file, 16, 16, IconScaler.AREA_AVERAGING,
+                () -> rasterize(file, decoder, 16));
+        Image large = IconCache.get(file, 32, 32, IconScaler.AREA_AVERAGING,
+                () -> rasterize(file, decoder, 32));
+
+        assertEquals(16, small.getWidth(null));
+        assertEquals(32, large.getWidth(null));
+        assertEquals(1, decoded[0]);
+        assertEquals(1, IconCache.getDecodeCount());
+        assertEquals(2, IconCache.getMissCount());
+        assertSame(small, IconCache.get(file, 16, 16, IconScaler.AREA_AVERAGING, () -> null));
+    }
+
+    @Test
+    public void testMutableSourceIsNotCached() throws IOException {
+        IconCache.clear();
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+        assertSame(image, IconCache.source(image, () -> image));
+        assertSame(image, IconCache.source(image, () -> image));
+        assertEquals(2, IconCache.getDecodeCount());
+    }
+
+    @Test
+    public void testSwitchingBackToAnIconIsAHit() throws IOException {
+        IconCache.clear();
+        URL url = new URL("file:/status/online.png");
+        int[] loads = new int[1];
+        Image first = IconCache.get(url, 16, 16, IconScaler.AREA_AVERAGING, () -> icon(loads));
+        Image again = IconCache.get(new URL("file:/status/online.png"), 16, 16, IconScaler.AREA_AVERAGING,
+                () -> icon(loads));
+        assertSame(first, again);
+        assertEquals(1, loads[0]);
+        assertEquals(1, IconCache.getHitCount());
+        assertEquals(1, IconCache.getMissCount());
+    }
+
+    @Test
+    public void testSizeAndScalerArePartOfTheKey() throws IOException {
+        IconCache.clear();
+        URL url = new URL("file:/status/busy.png");
+        int[] loads = new int[1];
+        IconCache.get(url, 16, 16, IconScaler.AREA_AVERAGING, () -> icon(loads));
+        IconCache.get(url, 22, 22, IconScaler.AREA_AVERAGING, () -> icon(loads));
+        IconCache.get(url, 16, 16, IconScaler.NEAREST, () -> icon(loads));
+        assertEquals(3, loads[0]);
+        assertEquals(3, IconCache.size());
+        assertEquals(0, IconCache.getHitCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIconIsEvicted() throws IOException {
+        IconCache.clear();
+        IconCache.setMaximumSize(2);
+        try {
+            URL a = new URL("file:/a.png");
+            URL b = new URL("file:/b.png");
+            URL c = new URL("file:/c.png");
+            int[] loads = new int[1];
+            IconCache.get(a, 16, 16, IconScaler.AREA_AVERAGING, () -> icon(loads));
+            IconCache.get(b, 16, 16, IconScaler.AREA_AVERAGING, () -> icon(loads));
+            IconCache.get(a, 16, 16, IconScaler.AREA_AVERAGING, () -> icon(loads));
+            IconCache.get(c, 16, 16, IconScaler.AREA_AVERAGING, () -> icon(loads));
+            assertEquals(2, IconCache.size());
+            assertEquals(3, loads[0]);
+
+            IconCache.get(a, 16, 16, IconScaler.AREA_AVERAGING, () -> icon(loads));
+            assertEquals(3, loads[0]);
+            IconCache.get(b, 16, 16, IconScaler.AREA_AVERAGING, () -> icon(loads));
+            assertEquals(4, loads[0]);
+
+            IconCache.setMaximumSize(0);
+            assertEquals(0, IconCache.size());
+        }
+        finally {
+            IconCache.setMaximumSize(64);
+        }
+    }
+
+    @Test
+    public void testEditedFileIsReadAgain() throws IOException {
+        IconCache.clear();
+        File file = folder.newFile("status.png");
+        int[] loads = new int[1];
+        IconCache.get(file, 16, 16, IconScaler.AREA_AVERAGING, () -> icon(loads));
+        assertTrue(file.setLastModified(file.lastModified() - 60_000));
+        IconCache.get(file, 16, 16, IconScaler.AREA_AVERAGING, () -> icon(loads));
+        assertEquals(2, loads[0]);
+    }
+
+    private static Image icon(int[] loads) {
+        loads[0]++;
+        return new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    private static Image rasterize(File file, IconCache.Decoder decoder, int size) {
+        try {
+            return ImageUtils.rasterize(IconCache.source(file, decoder), size, size);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
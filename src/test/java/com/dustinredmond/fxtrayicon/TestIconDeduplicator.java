@@ -0,0 +1,67 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class TestIconDeduplicator {
+
+    private static BufferedImage filled(int argb) {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE);
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+
+    @Test
+    public void testIdenticalRastersAreShared() {
+        Image first = IconDeduplicator.intern(filled(0xFF123456));
+        Image second = IconDeduplicator.intern(filled(0xFF123456));
+        Image other = IconDeduplicator.intern(filled(0xFF654321));
+        assertSame(first, second);
+        assertNotSame(first, other);
+    }
+
+    @Test
+    public void testSubImagesAreLeftAlone() {
+        BufferedImage sheet = filled(0xFFABCDEF);
+        Image part = sheet.getSubimage(0, 0, 8, 8);
+        assertSame(part, IconDeduplicator.intern(part));
+    }
+
+    @Test
+    public void testSamePixels() {
+        assertTrue(IconDeduplicator.samePixels(filled(0xFF00FF00), filled(0xFF00FF00)));
+        assertFalse(IconDeduplicator.samePixels(filled(0xFF00FF00), filled(0xFF00FF01)));
+        assertFalse(IconDeduplicator.samePixels(filled(0xFF00FF00), null));
+    }
+}
@@ -0,0 +1,65 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class TestIconScaler {
+
+    @Test
+    public void testEveryScalerProducesTheIconSize() {
+        BufferedImage source = new BufferedImage(512, 512, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 512; y++) {
+            for (int x = 0; x < 512; x++) {
+                source.setRGB(x, y, 0xFF3366CC);
+            }
+        }
+        for (IconScaler scaler : IconScaler.values()) {
+            BufferedImage icon = ImageUtils.rasterize(source, 16, 22, scaler);
+            assertEquals(scaler.name(), BufferedImage.TYPE_INT_ARGB_PRE, icon.getType());
+            assertEquals(16, icon.getWidth());
+            assertEquals(22, icon.getHeight());
+            assertEquals(scaler.name(), 0xFF3366CC, icon.getRGB(7, 11));
+        }
+    }
+
+    @Test
+    public void testProgressiveBilinearAveragesFineDetail() {
+        // a one pixel checkerboard averages out to grey, unless pixels are skipped
+        BufferedImage source = new BufferedImage(512, 512, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 512; y++) {
+            for (int x = 0; x < 512; x++) {
+                source.setRGB(x, y, (x + y) % 2 == 0 ? 0xFF000000 : 0xFFFFFFFF);
+            }
+        }
+        int smooth = ImageUtils.rasterize(source, 16, 16, IconScaler.PROGRESSIVE_BILINEAR).getRGB(8, 8) & 0xFF;
+        int nearest = ImageUtils.rasterize(source, 16, 16, IconScaler.NEAREST).getRGB(8, 8) & 0xFF;
+        assertTrue("Progressive bilinear gave " + smooth, Math.abs(smooth - 0x80) <= 2);
+        assertTrue("Nearest gave " + nearest, nearest == 0 || nearest == 0xFF);
+    }
+}
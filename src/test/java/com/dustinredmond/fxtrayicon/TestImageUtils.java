@@ -0,0 +1,89 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class TestImageUtils {
+
+    @Test
+    public void testLazyScaledImageIsRenderedOnce() {
+        Image lazy = filled(64, 64, BufferedImage.TYPE_INT_ARGB, 0xFF336699)
+                .getScaledInstance(32, 32, Image.SCALE_SMOOTH);
+        assertFalse(lazy instanceof BufferedImage);
+        BufferedImage raster = ImageUtils.rasterize(lazy, 16, 16);
+        assertEquals(BufferedImage.TYPE_INT_ARGB_PRE, raster.getType());
+        assertEquals(16, raster.getWidth());
+        assertEquals(16, raster.getHeight());
+        assertEquals(0xFF336699, raster.getRGB(8, 8));
+    }
+
+    @Test
+    public void testRasterInTheRequiredFormIsKept() {
+        BufferedImage icon = filled(16, 16, BufferedImage.TYPE_INT_ARGB_PRE, 0xFF000000);
+        assertSame(icon, ImageUtils.rasterize(icon, 16, 16));
+        assertNotSame(icon, ImageUtils.rasterize(icon, 22, 22));
+    }
+
+    @Test
+    public void testOtherImageTypesAreConverted() {
+        BufferedImage translucent = filled(16, 16, BufferedImage.TYPE_INT_ARGB, 0x80FF0000);
+        BufferedImage raster = ImageUtils.rasterize(translucent, 16, 16);
+        assertEquals(BufferedImage.TYPE_INT_ARGB_PRE, raster.getType());
+        // premultiplied, half transparent red is stored as half red
+        assertEquals(0x80800000, ImageUtils.pixels(raster)[0]);
+    }
+
+    @Test
+    public void testSubImagePixelsStayWithinItsBounds() {
+        BufferedImage sheet = filled(32, 16, BufferedImage.TYPE_INT_ARGB_PRE, 0xFF000000);
+        for (int y = 0; y < 16; y++) {
+            for (int x = 16; x < 32; x++) {
+                sheet.setRGB(x, y, 0xFFFFFFFF);
+            }
+        }
+        BufferedImage right = sheet.getSubimage(16, 0, 16, 16);
+        assertFalse(ImageUtils.ownsPixels(right));
+        int[] pixels = ImageUtils.pixels(right);
+        assertEquals(16 * 16, pixels.length);
+        for (int pixel : pixels) {
+            assertEquals(0xFFFFFFFF, pixel);
+        }
+    }
+
+    private static BufferedImage filled(int width, int height, int type, int argb) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+}
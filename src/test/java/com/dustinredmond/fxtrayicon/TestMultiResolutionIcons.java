@@ -0,0 +1,62 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.MultiResolutionImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestMultiResolutionIcons {
+
+    @Test
+    public void testBaseVariantHasTheTraySlotSize() {
+        List<Dimension> loaded = new ArrayList<>();
+        Image icon = MultiResolutionIcons.of((width, height) -> {
+            loaded.add(new Dimension(width, height));
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }, new Dimension(22, 22));
+        assertEquals(22, icon.getWidth(null));
+        assertEquals(22, icon.getHeight(null));
+        // 16, 22, 24, 28 (22 at 125%), 32, 33 (150%), 44 (200%) and 48
+        assertEquals(8, loaded.size());
+        Image doubled = ((MultiResolutionImage) icon).getResolutionVariant(44, 44);
+        assertEquals(44, doubled.getWidth(null));
+    }
+
+    @Test
+    public void testIdenticalVariantsCountAsTheSameIcon() {
+        MultiResolutionIcons.Loader loader = (width, height) ->
+                IconDeduplicator.intern(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE));
+        Image first = MultiResolutionIcons.of(loader, new Dimension(16, 16));
+        Image second = MultiResolutionIcons.of(loader, new Dimension(16, 16));
+        assertNotSame(first, second);
+        assertTrue(IconDeduplicator.samePixels(first, second));
+    }
+}
@@ -0,0 +1,77 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+
+import static org.junit.Assert.*;
+
+public class TestPaletteCycle {
+
+    private static final int[] COLOURS = {0xFF000000, 0xFFFF0000, 0xFF00FF00, 0xFF0000FF};
+
+    @Test
+    public void testFramesSharePixels() {
+        PaletteCycle cycle = new PaletteCycle(indexedImage(16)).addRotations(1, 3);
+        assertEquals(3, cycle.getPaletteCount());
+        FrameSource frames = cycle.frames(16, 16);
+        BufferedImage first = (BufferedImage) frames.get(0);
+        BufferedImage second = (BufferedImage) frames.get(1);
+        assertSame(first.getRaster(), second.getRaster());
+        assertEquals(COLOURS[1], first.getRGB(1, 0));
+        assertEquals(COLOURS[3], second.getRGB(1, 0));
+        assertEquals(COLOURS[0], second.getRGB(0, 0));
+    }
+
+    @Test
+    public void testScalingKeepsPaletteIndices() {
+        PaletteCycle cycle = new PaletteCycle(indexedImage(32)).addRotations(1, 3);
+        BufferedImage frame = (BufferedImage) cycle.frames(16, 16).get(0);
+        assertEquals(16, frame.getWidth());
+        assertEquals(COLOURS[2], frame.getRGB(1, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsImageWithoutPalette() {
+        new PaletteCycle(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB));
+    }
+
+    /**
+     * Column x is painted with palette entry x % 4.
+     */
+    private static BufferedImage indexedImage(int size) {
+        IndexColorModel palette = new IndexColorModel(8, COLOURS.length, COLOURS, 0, true, -1,
+                java.awt.image.DataBuffer.TYPE_BYTE);
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_INDEXED, palette);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                image.getRaster().setSample(x, y, 0, x % COLOURS.length);
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,175 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.color.ColorSpace;
+import java.awt.image.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TestPngDecoder {
+
+    private static final int SIZE = 37;
+
+    @Test
+    public void testDecodesLikeImageIO() throws IOException {
+        int[] types = {BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_BYTE_GRAY,
+                BufferedImage.TYPE_USHORT_GRAY, BufferedImage.TYPE_BYTE_INDEXED, BufferedImage.TYPE_BYTE_BINARY};
+        for (int type : types) {
+            BufferedImage image = new BufferedImage(SIZE, SIZE, type);
+            paint(image);
+            assertDecodesLikeImageIO("type " + type, image);
+        }
+        assertDecodesLikeImageIO("16 bit RGBA", rgba16());
+        assertDecodesLikeImageIO("4 bit palette with alpha", translucentPalette());
+    }
+
+    @Test
+    public void testInterlacedImagesAreLeftToImageIO() throws IOException {
+        byte[] png = write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB));
+        assertTrue(PngDecoder.INSTANCE.canDecode(Arrays.copyOf(png, 64)));
+        png[28] = 1;
+        assertFalse(PngDecoder.INSTANCE.canDecode(Arrays.copyOf(png, 64)));
+        assertFalse(PngDecoder.INSTANCE.canDecode("GIF89a".getBytes()));
+    }
+
+    @Test
+    public void testRegisteredDecoderIsAskedFirst() throws IOException {
+        BufferedImage marker = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB_PRE);
+        IconDecoder decoder = new IconDecoder() {
+            @Override
+            public boolean canDecode(byte[] header) {
+                return true;
+            }
+
+            @Override
+            public BufferedImage decode(InputStream in) {
+                return marker;
+            }
+        };
+        FXTrayIcon.registerIconDecoder(decoder);
+        try {
+            assertSame(marker, IconDecoders.read(new ByteArrayInputStream(write(new BufferedImage(4, 4,
+                    BufferedImage.TYPE_INT_ARGB)))));
+        }
+        finally {
+            FXTrayIcon.unregisterIconDecoder(decoder);
+        }
+        assertNotSame(marker, IconDecoders.read(new ByteArrayInputStream(write(new BufferedImage(4, 4,
+                BufferedImage.TYPE_INT_ARGB)))));
+    }
+
+    private static void assertDecodesLikeImageIO(String message, BufferedImage image) throws IOException {
+        byte[] png = write(image);
+        assertTrue(message, PngDecoder.INSTANCE.canDecode(Arrays.copyOf(png, 64)));
+        BufferedImage decoded = PngDecoder.INSTANCE.decode(new ByteArrayInputStream(png));
+        BufferedImage expected = premultiplied(ImageIO.read(new ByteArrayInputStream(png)));
+        assertEquals(BufferedImage.TYPE_INT_ARGB_PRE, decoded.getType());
+        int[] actual = ((DataBufferInt) decoded.getRaster().getDataBuffer()).getData();
+        int[] wanted = ((DataBufferInt) expected.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < wanted.length; i++) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                int difference = Math.abs((actual[i] >>> shift & 0xFF) - (wanted[i] >>> shift & 0xFF));
+                if (difference > 1) {
+                    fail(message + ": pixel " + i + " is " + Integer.toHexString(actual[i])
+                         + " instead of " + Integer.toHexString(wanted[i]));
+                }
+            }
+        }
+    }
+
+    private static void paint(BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            for (int y = 0; y < SIZE; y++) {
+                for (int x = 0; x < SIZE; x++) {
+                    g.setColor(new Color(x * 7, y * 7, (x + y) * 3, (x * y) % 256));
+                    g.fillRect(x, y, 1, 1);
+                }
+            }
+        }
+        finally {
+            g.dispose();
+        }
+    }
+
+    private static BufferedImage rgba16() {
+        ComponentColorModel model = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB),
+                true, false, Transparency.TRANSLUCENT, DataBuffer.TYPE_USHORT);
+        BufferedImage image = new BufferedImage(model, model.createCompatibleWritableRaster(SIZE, SIZE),
+                false, null);
+        paint(image);
+        return image;
+    }
+
+    private static BufferedImage translucentPalette() {
+        byte[] r = new byte[16];
+        byte[] g = new byte[16];
+        byte[] b = new byte[16];
+        byte[] a = new byte[16];
+        for (int i = 0; i < 16; i++) {
+            r[i] = (byte) (i * 16);
+            g[i] = (byte) (255 - i * 16);
+            b[i] = (byte) (i * 5);
+            a[i] = (byte) (i * 17);
+        }
+        BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_BYTE_BINARY,
+                new IndexColorModel(4, 16, r, g, b, a));
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                image.getRaster().setSample(x, y, 0, (x + y) % 16);
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage premultiplied(BufferedImage image) {
+        BufferedImage result = new BufferedImage(image.getWidth(), image.getHeight(),
+                BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = result.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, null);
+        }
+        finally {
+            g.dispose();
+        }
+        return result;
+    }
+
+    private static byte[] write(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(ImageIO.write(image, "png", out));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,82 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TestProceduralFrames {
+
+    @Test
+    public void testFramesAreDrawnOnceWhenFirstNeeded() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        List<Thread> drawingThreads = new ArrayList<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ProceduralFrames frames = new ProceduralFrames(index -> {
+            calls.incrementAndGet();
+            drawingThreads.add(Thread.currentThread());
+            BufferedImage frame = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB);
+            // frames with the same pixels would be shared and not shown again
+            frame.setRGB(index, index, 0xFFFFFFFF);
+            frame.setRGB(index + 1, index, 0xFFFFFFFF);
+            frame.setRGB(index, index + 1, 0xFFFFFFFF);
+            frame.setRGB(index + 1, index + 1, 0xFFFFFFFF);
+            return frame;
+        }, 12, 16, 16, IconScaler.AREA_AVERAGING, executor);
+        List<Image> shown = new ArrayList<>();
+        Animation animation = new Animation(shown::add, frames, new FrameSequence(100));
+        assertEquals(0, calls.get());
+
+        // tick through three loops, giving the executor time to draw the next frame after each step
+        for (int i = 0; i < 36; i++) {
+            animation.updateImage();
+            long deadline = System.currentTimeMillis() + 2000;
+            while (frames.getDrawnCount() < Math.min(i + 2, 12) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertEquals(12, calls.get());
+        assertEquals(12, frames.getDrawnCount());
+        assertFalse(drawingThreads.contains(Thread.currentThread()));
+        Image first = frames.get(0);
+        assertEquals(16, first.getWidth(null));
+        assertEquals(BufferedImage.TYPE_INT_ARGB_PRE, ((BufferedImage) first).getType());
+        // only the very first step had to go without its frame
+        assertEquals(35, shown.size());
+        assertSame(frames.get(5), frames.get(5));
+    }
+}
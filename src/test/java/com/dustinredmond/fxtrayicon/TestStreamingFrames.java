@@ -0,0 +1,137 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+public class TestStreamingFrames {
+
+    private static final int FRAMES = 10;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testOnlyTheWindowIsHeld() throws IOException {
+        StreamingFrames frames = StreamingFrames.of(writeFrames(), 16, 16, IconScaler.AREA_AVERAGING, 3, Runnable::run, null);
+        List<Image> shown = new ArrayList<>();
+        Animation animation = new Animation(shown::add, frames, new FrameSequence(100));
+        for (int i = 0; i < FRAMES * 2; i++) {
+            animation.updateImage();
+        }
+        assertEquals(FRAMES * 2, shown.size());
+        assertEquals(0, frames.getMissCount());
+        // every frame is read again in the second loop, as only three are kept
+        assertEquals(FRAMES * 2, frames.getDecodedCount());
+    }
+
+    @Test
+    public void testReversePlaybackPrefetchesBackwards() throws IOException {
+        StreamingFrames frames = StreamingFrames.of(writeFrames(), 16, 16, IconScaler.AREA_AVERAGING, 3, Runnable::run, null);
+        Animation animation = new Animation(frame -> { }, frames,
+                new FrameSequence(100).setPlayback(FrameSequence.Playback.REVERSE));
+        for (int i = 0; i < FRAMES * 2; i++) {
+            animation.updateImage();
+        }
+        assertEquals(0, frames.getMissCount());
+    }
+
+    @Test
+    public void testFramesFromZip() throws IOException {
+        StreamingFrames frames = StreamingFrames.ofZip(writeZip(), 16, 16, IconScaler.AREA_AVERAGING, 3, Runnable::run, null);
+        assertEquals(FRAMES, frames.size());
+        frames.prefetch(0);
+        BufferedImage first = (BufferedImage) frames.get(0);
+        assertEquals(0xFF000000, first.getRGB(0, 0));
+    }
+
+    @Test
+    public void testZipFileIsClosedWhenTheAnimationStops() throws IOException, InterruptedException {
+        File zip = writeZip();
+        StreamingFrames frames = StreamingFrames.ofZip(zip, 16, 16, IconScaler.AREA_AVERAGING, 3, Runnable::run, null);
+        assertFalse(frames.isOpen());
+        AnimationClock clock = new AnimationClock("Test clock", Thread.NORM_PRIORITY, Runnable::run, () -> true);
+        List<Image> shown = new ArrayList<>();
+        Animation animation = new Animation(shown::add, frames, new FrameSequence(20), clock);
+        animation.play();
+        Thread.sleep(100);
+        assertTrue(frames.isOpen());
+        animation.stop();
+        assertFalse(frames.isOpen());
+
+        // playing again reads from the zip file again
+        int shownWhenStopped = shown.size();
+        animation.play();
+        Thread.sleep(100);
+        animation.stop();
+        assertTrue(shown.size() > shownWhenStopped);
+        assertEquals(0, frames.getMissCount());
+        assertFalse(frames.isOpen());
+    }
+
+    private File writeZip() throws IOException {
+        File zip = folder.newFile("frames.zip");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+            for (File file : writeFrames()) {
+                out.putNextEntry(new ZipEntry(file.getName()));
+                out.write(java.nio.file.Files.readAllBytes(file.toPath()));
+                out.closeEntry();
+            }
+        }
+        return zip;
+    }
+
+    private List<File> writeFrames() throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < FRAMES; i++) {
+            BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB);
+            for (int y = 0; y < 32; y++) {
+                for (int x = 0; x < 32; x++) {
+                    image.setRGB(x, y, 0xFF000000 | i * 20);
+                }
+            }
+            File file = new File(folder.getRoot(), "frame" + i + ".png");
+            if (!file.exists()) {
+                ImageIO.write(image, "png", file);
+            }
+            files.add(file);
+        }
+        return files;
+    }
+}
@@ -0,0 +1,68 @@
+package com.dustinredmond.fxtrayicon;
+
+/*
+ * Copyright (c) 2022 Dustin K. Redmond & contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestTrayImage {
+
+    @Test
+    public void testRedrawnCallerImageIsShownAgain() {
+        Image[] shown = {null};
+        List<Image> pushed = new ArrayList<>();
+        TrayImage tray = new TrayImage(() -> shown[0], image -> {
+            shown[0] = image;
+            pushed.add(image);
+        });
+        // already in the layout and size of a tray icon, so it needs no scaling
+        BufferedImage status = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB_PRE);
+        fill(status, Color.GREEN);
+        assertTrue(tray.show(FXTrayIcon.loadImageFromAWT(status, 16, 16, IconScaler.AREA_AVERAGING)));
+
+        fill(status, Color.RED);
+        assertTrue(tray.show(FXTrayIcon.loadImageFromAWT(status, 16, 16, IconScaler.AREA_AVERAGING)));
+        assertEquals(2, pushed.size());
+        assertEquals(0xFFFF0000, ((BufferedImage) shown[0]).getRGB(8, 8));
+
+        // drawing the same picture again is still left out
+        assertFalse(tray.show(FXTrayIcon.loadImageFromAWT(status, 16, 16, IconScaler.AREA_AVERAGING)));
+    }
+
+    private static void fill(BufferedImage image, Color color) {
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(color);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        }
+        finally {
+            g.dispose();
+        }
+    }
+}